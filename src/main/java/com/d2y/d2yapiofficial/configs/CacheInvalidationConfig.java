@@ -0,0 +1,51 @@
+package com.d2y.d2yapiofficial.configs;
+
+import java.util.Map;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+
+/**
+ * Producer side of the cache invalidation bus. Latency matters more than
+ * throughput here, so records are not lingered; the bus already coalesces
+ * keys before sending.
+ */
+@Configuration
+@ConditionalOnProperty(name = "cache.invalidation.enabled", havingValue = "true")
+public class CacheInvalidationConfig {
+
+  @Value("${cache.invalidation.topic:d2y.cache-invalidation}")
+  private String topic;
+
+  @Bean
+  public ProducerFactory<String, String> invalidationProducerFactory(KafkaProperties kafkaProperties) {
+    Map<String, Object> props = kafkaProperties.buildProducerProperties();
+    props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+    props.put(ProducerConfig.ACKS_CONFIG, "all");
+    props.put(ProducerConfig.LINGER_MS_CONFIG, 0);
+    props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+    props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+    return new DefaultKafkaProducerFactory<>(props);
+  }
+
+  @Bean
+  public KafkaTemplate<String, String> invalidationKafkaTemplate(
+      ProducerFactory<String, String> invalidationProducerFactory) {
+    return new KafkaTemplate<>(invalidationProducerFactory);
+  }
+
+  @Bean
+  public NewTopic cacheInvalidationTopic() {
+    return TopicBuilder.name(topic).partitions(1).build();
+  }
+}
@@ -5,7 +5,6 @@ import java.util.Properties;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.JavaMailSenderImpl;
 
 @Configuration
@@ -33,7 +32,7 @@ public class JavaMailConfig {
   private String smtpStarttlsEnable;
 
   @Bean
-  public JavaMailSender javaMailSender() {
+  public JavaMailSenderImpl javaMailSender() {
     JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
     mailSender.setHost(host);
     mailSender.setPort(port);
@@ -0,0 +1,27 @@
+package com.d2y.d2yapiofficial.configs;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Insert and update batching defaults, overridable through
+ * {@code spring.jpa.properties.*}. The pooled-lo optimizer is not optional:
+ * {@code UserRoleJdbcRepository} hands out ids from the same sequences and
+ * assumes a fetched value is the low end of its block.
+ */
+@Configuration
+public class JpaConfig {
+
+  @Bean
+  public HibernatePropertiesCustomizer batchingHibernatePropertiesCustomizer() {
+    return properties -> {
+      properties.put(AvailableSettings.PREFERRED_POOLED_OPTIMIZER, "pooled-lo");
+      properties.putIfAbsent(AvailableSettings.STATEMENT_BATCH_SIZE, "50");
+      properties.putIfAbsent(AvailableSettings.ORDER_INSERTS, "true");
+      properties.putIfAbsent(AvailableSettings.ORDER_UPDATES, "true");
+      properties.putIfAbsent(AvailableSettings.BATCH_VERSIONED_DATA, "true");
+    };
+  }
+}
@@ -0,0 +1,63 @@
+package com.d2y.d2yapiofficial.configs;
+
+import java.util.Map;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import com.d2y.d2yapiofficial.dto.event.DomainEvent;
+
+/**
+ * Producer for domain events. Connection settings come from
+ * {@code spring.kafka.*} (point {@code spring.kafka.bootstrap-servers} at an
+ * embedded broker in tests); idempotence, linger, batching and compression
+ * default to throughput-oriented values unless overridden there.
+ */
+@Configuration
+@ConditionalOnProperty(name = "events.kafka.enabled", havingValue = "true")
+public class KafkaProducerConfig {
+
+  @Value("${events.kafka.topic:d2y.domain-events}")
+  private String topic;
+
+  @Value("${events.kafka.partitions:6}")
+  private int partitions;
+
+  @Bean
+  public ProducerFactory<String, DomainEvent> domainEventProducerFactory(KafkaProperties kafkaProperties) {
+    Map<String, Object> props = kafkaProperties.buildProducerProperties();
+    props.putIfAbsent(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+    props.putIfAbsent(ProducerConfig.ACKS_CONFIG, "all");
+    props.putIfAbsent(ProducerConfig.LINGER_MS_CONFIG, 20);
+    props.putIfAbsent(ProducerConfig.BATCH_SIZE_CONFIG, 64 * 1024);
+    props.putIfAbsent(ProducerConfig.COMPRESSION_TYPE_CONFIG, "lz4");
+    props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+    props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+    props.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
+    return new DefaultKafkaProducerFactory<>(props);
+  }
+
+  @Bean
+  public KafkaTemplate<String, DomainEvent> domainEventKafkaTemplate(
+      ProducerFactory<String, DomainEvent> domainEventProducerFactory) {
+    KafkaTemplate<String, DomainEvent> kafkaTemplate = new KafkaTemplate<>(domainEventProducerFactory);
+    kafkaTemplate.setDefaultTopic(topic);
+    return kafkaTemplate;
+  }
+
+  @Bean
+  public NewTopic domainEventTopic() {
+    return TopicBuilder.name(topic).partitions(partitions).build();
+  }
+}
@@ -0,0 +1,29 @@
+package com.d2y.d2yapiofficial.configs;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.security.access.PermissionEvaluator;
+import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionHandler;
+import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
+import org.springframework.security.config.annotation.method.configuration.GlobalMethodSecurityConfiguration;
+
+@Configuration
+@EnableGlobalMethodSecurity(prePostEnabled = true)
+public class MethodSecurityConfig extends GlobalMethodSecurityConfiguration {
+
+  private final PermissionEvaluator permissionEvaluator;
+
+  // Lazy so the evaluator's repositories are not initialised ahead of the
+  // method security infrastructure (and thereby miss their own proxies).
+  public MethodSecurityConfig(@Lazy PermissionEvaluator permissionEvaluator) {
+    this.permissionEvaluator = permissionEvaluator;
+  }
+
+  @Override
+  protected MethodSecurityExpressionHandler createExpressionHandler() {
+    DefaultMethodSecurityExpressionHandler expressionHandler = new DefaultMethodSecurityExpressionHandler();
+    expressionHandler.setPermissionEvaluator(permissionEvaluator);
+    return expressionHandler;
+  }
+}
@@ -5,6 +5,7 @@ import javax.persistence.EntityNotFoundException;
 import javax.validation.ValidationException;
 
 import com.d2y.d2yapiofficial.exceptions.ForbiddenException;
+import com.d2y.d2yapiofficial.exceptions.TooManyRequestsException;
 import com.d2y.d2yapiofficial.exceptions.UnauthorizedException;
 import com.toedter.spring.hateoas.jsonapi.JsonApiError;
 
@@ -13,6 +14,7 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.lang.Nullable;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.WebRequest;
@@ -56,8 +58,11 @@ public class ResponseEntityExceptionConfig extends ResponseEntityExceptionHandle
       status = HttpStatus.BAD_REQUEST;
     } else if (ex instanceof UnauthorizedException) {
       status = HttpStatus.UNAUTHORIZED;
-    } else if (ex instanceof ForbiddenException) {
+    } else if (ex instanceof ForbiddenException || ex instanceof AccessDeniedException) {
       status = HttpStatus.FORBIDDEN;
+    } else if (ex instanceof TooManyRequestsException) {
+      status = HttpStatus.TOO_MANY_REQUESTS;
+      headers.set(HttpHeaders.RETRY_AFTER, "1");
     } else {
       // do nothing?
     }
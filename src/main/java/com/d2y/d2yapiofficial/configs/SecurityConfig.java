@@ -5,6 +5,10 @@ import com.nimbusds.jose.jwk.JWKSet;
 import com.nimbusds.jose.jwk.RSAKey;
 import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
 import com.nimbusds.jose.jwk.source.JWKSource;
+import com.d2y.d2yapiofficial.security.CachingJwtDecoder;
+import com.d2y.d2yapiofficial.security.ExecutorPasswordEncoder;
+import com.d2y.d2yapiofficial.security.PasswordEncoderCalibrator;
+import com.d2y.d2yapiofficial.security.PasswordHashingExecutor;
 import com.nimbusds.jose.proc.SecurityContext;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
@@ -20,6 +24,7 @@ import org.springframework.security.config.annotation.web.configurers.oauth2.ser
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.JwtEncoder;
@@ -30,13 +35,18 @@ import org.springframework.security.oauth2.server.resource.web.access.BearerToke
 
 import java.security.interfaces.RSAPrivateKey;
 import java.security.interfaces.RSAPublicKey;
+import java.util.HashMap;
+import java.util.Map;
 
 @Configuration
 @RequiredArgsConstructor
 @SuppressWarnings("deprecation")
 public class SecurityConfig extends WebSecurityConfigurerAdapter {
 
+  private static final String BCRYPT = "bcrypt";
+
   private final UserDetailsService userDetailsService;
+  private final PasswordHashingExecutor passwordHashingExecutor;
 
   @Value("${jwt.public.key}")
   RSAPublicKey publicKey;
@@ -44,6 +54,18 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
   @Value("${jwt.secret.key}")
   RSAPrivateKey secretKey;
 
+  @Value("${security.password.target-latency:50}")
+  long passwordTargetLatency;
+
+  @Value("${security.password.min-strength:10}")
+  int passwordMinStrength;
+
+  @Value("${security.password.max-strength:14}")
+  int passwordMaxStrength;
+
+  @Value("${jwt.decoder-cache.max-entries:10000}")
+  int jwtDecoderCacheMaxEntries;
+
   @SuppressWarnings("deprecation")
   @Bean(BeanIds.AUTHENTICATION_MANAGER)
   @Override
@@ -80,14 +102,30 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
         .passwordEncoder(passwordEncoder());
   }
 
+  /**
+   * Hashes are stored as {@code {bcrypt}...} with a strength calibrated to
+   * {@code security.password.target-latency}. Legacy unprefixed BCrypt hashes
+   * still match, and any hash with an outdated id or strength is re-encoded by
+   * the authentication manager on the next successful login (see
+   * {@code UserDetailsServiceImpl#updatePassword}).
+   */
   @Bean
   PasswordEncoder passwordEncoder() {
-    return new BCryptPasswordEncoder();
+    int strength = PasswordEncoderCalibrator.calibrateBCryptStrength(passwordTargetLatency, passwordMinStrength,
+        passwordMaxStrength);
+    BCryptPasswordEncoder bCryptPasswordEncoder = new BCryptPasswordEncoder(strength);
+
+    Map<String, PasswordEncoder> encoders = new HashMap<>();
+    encoders.put(BCRYPT, bCryptPasswordEncoder);
+    DelegatingPasswordEncoder delegatingPasswordEncoder = new DelegatingPasswordEncoder(BCRYPT, encoders);
+    delegatingPasswordEncoder.setDefaultPasswordEncoderForMatches(bCryptPasswordEncoder);
+
+    return new ExecutorPasswordEncoder(delegatingPasswordEncoder, passwordHashingExecutor);
   }
 
   @Bean
   JwtDecoder jwtDecoder() {
-    return NimbusJwtDecoder.withPublicKey(this.publicKey).build();
+    return new CachingJwtDecoder(NimbusJwtDecoder.withPublicKey(this.publicKey).build(), jwtDecoderCacheMaxEntries);
   }
 
   @Bean
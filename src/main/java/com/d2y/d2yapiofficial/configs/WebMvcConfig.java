@@ -1,16 +1,41 @@
 package com.d2y.d2yapiofficial.configs;
 
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.data.web.SpringDataWebProperties;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.web.config.PageableHandlerMethodArgumentResolverCustomizer;
 import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.ContentNegotiationConfigurer;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import com.d2y.d2yapiofficial.utils.PaginationUtil;
+
 @Configuration
 @EnableWebMvc
 public class WebMvcConfig implements WebMvcConfigurer {
 
+  // Async responses (the streaming user export) hold a database connection
+  // until they finish, so they run on a small bounded pool. @EnableWebMvc
+  // switches off spring.mvc.*, hence the own properties.
+  @Value("${web.async.threads:4}")
+  private int asyncThreads;
+
+  @Value("${web.async.queue-capacity:16}")
+  private int asyncQueueCapacity;
+
+  @Value("${web.async.timeout:600000}")
+  private long asyncTimeoutMillis;
+
+  private ThreadPoolTaskExecutor asyncExecutor;
+
   @Override
   public void addCorsMappings(CorsRegistry cors) {
     cors
@@ -26,4 +51,43 @@ public class WebMvcConfig implements WebMvcConfigurer {
     configurer.defaultContentType(new MediaType("application", "vnd.api+json"), MediaType.APPLICATION_JSON);
   }
 
+  @Override
+  public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+    asyncExecutor = new ThreadPoolTaskExecutor();
+    asyncExecutor.setCorePoolSize(asyncThreads);
+    asyncExecutor.setMaxPoolSize(asyncThreads);
+    asyncExecutor.setQueueCapacity(asyncQueueCapacity);
+    asyncExecutor.setThreadNamePrefix("mvc-async-");
+    asyncExecutor.initialize();
+    configurer.setTaskExecutor(asyncExecutor);
+    configurer.setDefaultTimeout(asyncTimeoutMillis);
+  }
+
+  @PreDestroy
+  void shutdown() {
+    if (asyncExecutor != null) {
+      asyncExecutor.shutdown();
+    }
+  }
+
+  /**
+   * Takes the place of Boot's customizer with the same
+   * {@code spring.data.web.pageable} settings, except that the page size can
+   * never exceed {@link PaginationUtil#MAX_PAGE_SIZE}; larger requests are
+   * clamped.
+   */
+  @Bean
+  PageableHandlerMethodArgumentResolverCustomizer cappedPageableCustomizer(SpringDataWebProperties properties) {
+    SpringDataWebProperties.Pageable pageable = properties.getPageable();
+    int maxPageSize = Math.min(pageable.getMaxPageSize(), PaginationUtil.MAX_PAGE_SIZE);
+    return resolver -> {
+      resolver.setPageParameterName(pageable.getPageParameter());
+      resolver.setSizeParameterName(pageable.getSizeParameter());
+      resolver.setOneIndexedParameters(pageable.isOneIndexedParameters());
+      resolver.setPrefix(pageable.getPrefix());
+      resolver.setQualifierDelimiter(pageable.getQualifierDelimiter());
+      resolver.setFallbackPageable(PageRequest.of(0, Math.min(pageable.getDefaultPageSize(), maxPageSize)));
+      resolver.setMaxPageSize(maxPageSize);
+    };
+  }
 }
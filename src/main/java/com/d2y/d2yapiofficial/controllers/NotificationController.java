@@ -0,0 +1,39 @@
+package com.d2y.d2yapiofficial.controllers;
+
+import javax.validation.Valid;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.d2y.d2yapiofficial.dto.notification.AnnouncementRequest;
+import com.d2y.d2yapiofficial.dto.notification.BulkMailJobDTO;
+import com.d2y.d2yapiofficial.services.BulkMailService;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api/v1/notifications")
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class NotificationController {
+
+  private final BulkMailService bulkMailService;
+
+  @PostMapping("/announcements")
+  public ResponseEntity<Object> sendAnnouncement(@Valid @RequestBody AnnouncementRequest announcementRequest) {
+    BulkMailJobDTO job = bulkMailService.startAnnouncement(announcementRequest);
+    return ResponseEntity.status(HttpStatus.ACCEPTED).body(EntityModel.of(job));
+  }
+
+  @GetMapping("/announcements/{jobId}")
+  public ResponseEntity<Object> getAnnouncement(@PathVariable String jobId) {
+    return ResponseEntity.ok(EntityModel.of(bulkMailService.getJob(jobId)));
+  }
+}
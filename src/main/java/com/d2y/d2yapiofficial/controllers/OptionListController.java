@@ -0,0 +1,51 @@
+package com.d2y.d2yapiofficial.controllers;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import com.d2y.d2yapiofficial.ol.dto.CategoryCodeDTO;
+import com.d2y.d2yapiofficial.services.CategoryCodeCache;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api/v1/option-list")
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class OptionListController {
+
+  private final CategoryCodeCache categoryCodeCache;
+
+  // The ETag is the snapshot version, so clients revalidate with If-None-Match and get a 304 until it changes.
+  @GetMapping("/{categoryName}")
+  public ResponseEntity<Object> getCategoryCodes(@PathVariable String categoryName,
+      @RequestParam(required = false) String search, WebRequest request) {
+    String etag = "\"" + categoryCodeCache.getVersion() + "\"";
+    if (request.checkNotModified(etag)) {
+      return null;
+    }
+
+    List<CategoryCodeDTO> codes = categoryCodeCache.list(categoryName);
+    if (search != null && !search.isBlank()) {
+      String term = search.toLowerCase(Locale.ROOT);
+      codes = codes.stream()
+          .filter(code -> code.getName() != null && code.getName().toLowerCase(Locale.ROOT).contains(term))
+          .collect(Collectors.toList());
+    }
+    return ResponseEntity.ok()
+        .eTag(etag)
+        .cacheControl(CacheControl.noCache())
+        .body(CollectionModel.of(codes));
+  }
+}
@@ -22,6 +22,7 @@ import com.d2y.d2yapiofficial.dto.privilege.AddRolePrivilegeDTO;
 import com.d2y.d2yapiofficial.dto.privilege.DetailRolePrivilegeDTO;
 import com.d2y.d2yapiofficial.dto.privilege.UpdateRolePrivilegeDTO;
 import com.d2y.d2yapiofficial.services.RolePrivilegeService;
+import com.d2y.d2yapiofficial.utils.PaginationUtil;
 import com.d2y.d2yapiofficial.utils.constants.ConstantMessage;
 import com.toedter.spring.hateoas.jsonapi.JsonApiModelBuilder;
 
@@ -36,7 +37,12 @@ public class RolePrivilegeController {
   private final MessageUtil msg;
 
   @GetMapping
-  public ResponseEntity<Object> getAllRolePrivilege(Pageable pageable, @RequestParam(required = false) String search) {
+  public ResponseEntity<Object> getAllRolePrivilege(Pageable pageable, @RequestParam(required = false) String search,
+      @RequestParam(required = false) String cursor) {
+    if (cursor != null) {
+      return ResponseEntity.ok(
+          PaginationUtil.toModel(rolePrivilegeService.getRolePrivilegesAfter(cursor, pageable, search)));
+    }
     Page<DetailRolePrivilegeDTO> listRoleDTO = rolePrivilegeService.convertToRolePrivilegeDTO(pageable, search);
     return ResponseEntity.ok(PagedModel.of(listRoleDTO.getContent(),
         new PageMetadata(listRoleDTO.getSize(), listRoleDTO.getNumber(), listRoleDTO.getTotalElements())));
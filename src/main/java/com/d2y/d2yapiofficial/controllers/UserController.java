@@ -1,33 +1,44 @@
 package com.d2y.d2yapiofficial.controllers;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.stream.Collectors;
 
-import javax.servlet.http.HttpServletRequest;
-
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.PagedModel;
 import org.springframework.hateoas.PagedModel.PageMetadata;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.d2y.d2yapiofficial.dto.user.UpdateUserDTO;
+import com.d2y.d2yapiofficial.dto.user.UserImportJobDTO;
 import com.d2y.d2yapiofficial.dto.user.UserResponseDTO;
 import com.d2y.d2yapiofficial.models.User;
+import com.d2y.d2yapiofficial.ol.dto.UserListDTO;
 import com.d2y.d2yapiofficial.services.GetService;
+import com.d2y.d2yapiofficial.services.UserExportService;
+import com.d2y.d2yapiofficial.services.UserImportService;
 import com.d2y.d2yapiofficial.services.UserService;
+import com.d2y.d2yapiofficial.utils.PaginationUtil;
 import com.d2y.d2yapiofficial.utils.constants.ConstantMessage;
+import com.d2y.d2yapiofficial.utils.constants.DataFormat;
 import com.toedter.spring.hateoas.jsonapi.JsonApiModelBuilder;
 
 import lib.i18n.utility.MessageUtil;
@@ -40,10 +51,17 @@ public class UserController {
 
   private final UserService userService;
   private final GetService getService;
+  private final UserImportService userImportService;
+  private final UserExportService userExportService;
   private final MessageUtil messageUtil;
 
+  // Passing cursor (empty for the first page) switches to keyset pagination.
   @GetMapping
-  public Object getAllUsers(Pageable pageable, @RequestParam(required = false) String search) {
+  public Object getAllUsers(Pageable pageable, @RequestParam(required = false) String search,
+      @RequestParam(required = false) String cursor) {
+    if (cursor != null) {
+      return ResponseEntity.ok(PaginationUtil.toModel(userService.getUsersAfter(cursor, pageable, search)));
+    }
     Page<UserResponseDTO> users = userService.getAllUsers(pageable, search);
     List<UserResponseDTO> userDTO = users.getContent().stream().collect(Collectors.toList());
     return ResponseEntity.ok(PagedModel.of(userDTO,
@@ -51,6 +69,38 @@ public class UserController {
             users.getTotalElements())));
   }
 
+  @GetMapping("/typeahead")
+  public ResponseEntity<Object> typeahead(@RequestParam String q, @RequestParam(defaultValue = "10") int limit) {
+    List<UserListDTO> users = userService.typeahead(q, Math.max(1, Math.min(limit, 50)));
+    return ResponseEntity.status(HttpStatus.OK).body(CollectionModel.of(users));
+  }
+
+  // format (csv | ndjson) defaults to the file extension or content type.
+  @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+  public ResponseEntity<Object> importUsers(@RequestParam("file") MultipartFile file,
+      @RequestParam(required = false) String format,
+      @RequestParam(defaultValue = "false") boolean deferVerification) throws IOException {
+    UserImportJobDTO job = userImportService.startImport(file, format, deferVerification);
+    return ResponseEntity.status(HttpStatus.ACCEPTED).body(EntityModel.of(job));
+  }
+
+  @GetMapping("/import/{jobId}")
+  public ResponseEntity<Object> getImport(@PathVariable String jobId) {
+    return ResponseEntity.ok(EntityModel.of(userImportService.getJob(jobId)));
+  }
+
+  @GetMapping("/export")
+  public ResponseEntity<StreamingResponseBody> exportUsers(
+      @RequestParam(defaultValue = DataFormat.NDJSON) String format) {
+    StreamingResponseBody body = userExportService.exportUsers(format);
+    boolean csv = DataFormat.CSV.equalsIgnoreCase(format);
+    return ResponseEntity.ok()
+        .contentType(MediaType.parseMediaType(csv ? DataFormat.CSV_CONTENT_TYPE : DataFormat.NDJSON_CONTENT_TYPE))
+        .header(HttpHeaders.CONTENT_DISPOSITION,
+            "attachment; filename=\"users." + (csv ? DataFormat.CSV : DataFormat.NDJSON) + "\"")
+        .body(body);
+  }
+
   @GetMapping("/{userId}")
   public ResponseEntity<Object> getUserById(@PathVariable Long userId) {
     User user = getService.getUser(userId, ConstantMessage.USER_NOT_FOUND);
@@ -71,8 +121,8 @@ public class UserController {
   }
 
   @DeleteMapping("/{userId}")
-  public ResponseEntity<Object> deleteUser(HttpServletRequest request, @PathVariable Long userId) {
-    userService.deleteUser(getService.getToken(request), userId);
+  public ResponseEntity<Object> deleteUser(@PathVariable Long userId) {
+    userService.deleteUser(userId);
     return ResponseEntity.status(HttpStatus.OK)
         .body(JsonApiModelBuilder
             .jsonApiModel()
@@ -1,10 +1,13 @@
 package com.d2y.d2yapiofficial.controllers;
 
+import java.util.List;
+
 import javax.servlet.http.HttpServletRequest;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.PagedModel;
 import org.springframework.hateoas.PagedModel.PageMetadata;
@@ -21,10 +24,13 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.d2y.d2yapiofficial.dto.role.AddUserRoleDTO;
+import com.d2y.d2yapiofficial.dto.role.BulkAddUserRoleDTO;
+import com.d2y.d2yapiofficial.dto.role.BulkUserRoleResultDTO;
 import com.d2y.d2yapiofficial.dto.role.DetailUserRoleDTO;
 import com.d2y.d2yapiofficial.dto.role.UpdateUserRoleDTO;
 import com.d2y.d2yapiofficial.services.GetService;
 import com.d2y.d2yapiofficial.services.UserRoleService;
+import com.d2y.d2yapiofficial.utils.PaginationUtil;
 import com.d2y.d2yapiofficial.utils.constants.ConstantMessage;
 import com.toedter.spring.hateoas.jsonapi.JsonApiModelBuilder;
 
@@ -41,7 +47,11 @@ public class UserRoleController {
   private final MessageUtil messageUtil;
 
   @GetMapping
-  public ResponseEntity<Object> getAllUserRole(Pageable pageable, @RequestParam(required = false) String search) {
+  public ResponseEntity<Object> getAllUserRole(Pageable pageable, @RequestParam(required = false) String search,
+      @RequestParam(required = false) String cursor) {
+    if (cursor != null) {
+      return ResponseEntity.ok(PaginationUtil.toModel(userRoleService.getUserRolesAfter(cursor, pageable, search)));
+    }
     Page<DetailUserRoleDTO> userRolePage = userRoleService.convertToRolePrivilegeDTO(pageable, search);
     return ResponseEntity.ok(PagedModel.of(userRolePage.getContent(),
         new PageMetadata(userRolePage.getSize(), userRolePage.getNumber(), userRolePage.getTotalElements())));
@@ -66,6 +76,18 @@ public class UserRoleController {
             .build());
   }
 
+  @PostMapping("/bulk-add")
+  public ResponseEntity<Object> addUserRoles(@RequestBody BulkAddUserRoleDTO bulkAddUserRoleDTO) {
+    List<BulkUserRoleResultDTO> results = userRoleService.addUserRoles(bulkAddUserRoleDTO);
+    return ResponseEntity.status(HttpStatus.OK)
+        .body(JsonApiModelBuilder
+            .jsonApiModel()
+            .model(CollectionModel.of(results))
+            .meta(ConstantMessage.MESSAGE, messageUtil
+                .get(ConstantMessage.APP_SUCCESS_CREATED, ConstantMessage.USER_ROLE))
+            .build());
+  }
+
   @PutMapping("/update/{id}")
   public ResponseEntity<Object> updateUserRole(@PathVariable("id") Long id,
       @RequestBody UpdateUserRoleDTO userRoleDto) throws Exception {
@@ -1,6 +1,5 @@
 package com.d2y.d2yapiofficial.dto.auth;
 
-import javax.validation.constraints.Email;
 import javax.validation.constraints.NotBlank;
 
 import lombok.AllArgsConstructor;
@@ -13,7 +12,4 @@ import lombok.NoArgsConstructor;
 public class RefreshTokenRequest {
   @NotBlank
   private String refreshToken;
-
-  @Email(message = "Invalid email address")
-  private String email;
 }
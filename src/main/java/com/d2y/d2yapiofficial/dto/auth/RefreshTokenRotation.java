@@ -0,0 +1,14 @@
+package com.d2y.d2yapiofficial.dto.auth;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * The user a refresh token family was issued to, and the raw successor token.
+ */
+@Data
+@AllArgsConstructor
+public class RefreshTokenRotation {
+  private Long userId;
+  private String refreshToken;
+}
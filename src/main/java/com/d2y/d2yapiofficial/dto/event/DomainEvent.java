@@ -0,0 +1,27 @@
+package com.d2y.d2yapiofficial.dto.event;
+
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Envelope of every event on the domain event topic. {@code version} is the
+ * schema version of {@code data} for the given {@code type}; consumers should
+ * ignore fields they do not know.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DomainEvent {
+  private String eventId;
+  private String type;
+  private int version;
+  private String aggregateType;
+  private Long aggregateId;
+  private long occurredOn;
+  private Map<String, Object> data;
+}
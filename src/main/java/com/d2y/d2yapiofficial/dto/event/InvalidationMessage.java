@@ -0,0 +1,19 @@
+package com.d2y.d2yapiofficial.dto.event;
+
+import java.util.Set;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvalidationMessage {
+  private String origin;
+  private long sentAt;
+  // "<cache>:<key>", e.g. "authorizationSnapshot:user:42"
+  private Set<String> keys;
+}
@@ -0,0 +1,18 @@
+package com.d2y.d2yapiofficial.dto.notification;
+
+import javax.validation.constraints.NotBlank;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AnnouncementRequest {
+  @NotBlank
+  private String subject;
+
+  @NotBlank
+  private String message;
+}
@@ -0,0 +1,27 @@
+package com.d2y.d2yapiofficial.dto.notification;
+
+import java.sql.Timestamp;
+
+import com.toedter.spring.hateoas.jsonapi.JsonApiTypeForClass;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonApiTypeForClass("BulkMailJob")
+public class BulkMailJobDTO {
+  private String jobId;
+  private String subject;
+  private String status;
+  private long total;
+  private long sent;
+  private long failed;
+  private double messagesPerSecond;
+  private Timestamp startedOn;
+  private Timestamp finishedOn;
+}
@@ -0,0 +1,35 @@
+package com.d2y.d2yapiofficial.dto.page;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * One page of a keyset walk. {@code nextCursor} is null on the last page.
+ */
+@Getter
+@AllArgsConstructor
+public class CursorPage<T> {
+
+  private final List<T> content;
+  private final String nextCursor;
+
+  /**
+   * Builds a page from up to {@code size + 1} rows; the extra row only tells
+   * whether another page exists.
+   */
+  public static <T> CursorPage<T> of(List<T> rows, int size, Function<T, String> cursorOf) {
+    if (rows.size() <= size) {
+      return new CursorPage<>(rows, null);
+    }
+    List<T> content = rows.subList(0, size);
+    return new CursorPage<>(content, cursorOf.apply(content.get(size - 1)));
+  }
+
+  public <R> CursorPage<R> map(Function<T, R> mapper) {
+    return new CursorPage<>(content.stream().map(mapper).collect(Collectors.toList()), nextCursor);
+  }
+}
@@ -23,8 +23,6 @@ public class AddRolePrivilegeDTO {
   private String roleName;
   @NotEmpty(message = "Please input Privilege")
   private List<Long> listPrivilege;
-  private Long createdBy;
   private Timestamp createdOn;
   private Timestamp updatedOn;
-  private Long updatedBy;
 }
@@ -0,0 +1,17 @@
+package com.d2y.d2yapiofficial.dto.privilege;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EffectivePrivilegeDTO {
+  private Long roleId;
+  private String roleName;
+  private Long privilegeId;
+  private String privilegeName;
+}
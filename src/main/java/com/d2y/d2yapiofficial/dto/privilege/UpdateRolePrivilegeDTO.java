@@ -20,8 +20,6 @@ public class UpdateRolePrivilegeDTO {
   @NotEmpty(message = "Please input Privilege")
   private List<Long> privilegeId;
   private boolean isActive;
-  private Long createdBy;
   private Timestamp createdOn;
-  private Long updatedBy;
   private Timestamp updatedOn;
 }
@@ -0,0 +1,22 @@
+package com.d2y.d2yapiofficial.dto.role;
+
+import java.util.List;
+
+import javax.validation.constraints.NotEmpty;
+
+import com.toedter.spring.hateoas.jsonapi.JsonApiTypeForClass;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonApiTypeForClass("Bulk Add User Role")
+public class BulkAddUserRoleDTO {
+  @NotEmpty(message = "Please input User Role")
+  private List<AddUserRoleDTO> items;
+}
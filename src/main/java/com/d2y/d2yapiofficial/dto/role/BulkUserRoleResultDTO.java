@@ -0,0 +1,29 @@
+package com.d2y.d2yapiofficial.dto.role;
+
+import java.util.List;
+
+import javax.persistence.Id;
+
+import com.toedter.spring.hateoas.jsonapi.JsonApiTypeForClass;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonApiTypeForClass("Bulk User Role Result")
+public class BulkUserRoleResultDTO {
+  public static final String CREATED = "CREATED";
+  public static final String SKIPPED = "SKIPPED";
+  public static final String FAILED = "FAILED";
+
+  @Id
+  private Long userId;
+  private List<Long> roleId;
+  private String status;
+  private String message;
+}
@@ -25,8 +25,6 @@ public class UpdateUserRoleDTO {
   @NotEmpty(message = "Please input Role")
   private List<Long> roleId;
   private boolean active;
-  private Long createdBy;
   private Timestamp createdOn;
-  private Long updatedBy;
   private Timestamp updatedOn;
 }
@@ -0,0 +1,16 @@
+package com.d2y.d2yapiofficial.dto.user;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserContactDTO {
+  private Long userId;
+  private String email;
+  private String username;
+}
@@ -0,0 +1,26 @@
+package com.d2y.d2yapiofficial.dto.user;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+import com.d2y.d2yapiofficial.dto.role.RoleDTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserExportDTO {
+  private Long userId;
+  private String username;
+  private String email;
+  private String phoneNumber;
+  private Timestamp registrationDate;
+  private Timestamp lastLogin;
+  private boolean enabled;
+  private List<RoleDTO> roles;
+}
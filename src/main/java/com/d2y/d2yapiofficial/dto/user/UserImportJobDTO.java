@@ -0,0 +1,31 @@
+package com.d2y.d2yapiofficial.dto.user;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+import com.toedter.spring.hateoas.jsonapi.JsonApiTypeForClass;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonApiTypeForClass("UserImportJob")
+public class UserImportJobDTO {
+  private String jobId;
+  private String format;
+  private String status;
+  private boolean verificationDeferred;
+  private long processed;
+  private long imported;
+  private long duplicates;
+  private long failed;
+  private double rowsPerSecond;
+  private List<String> errors;
+  private Timestamp startedOn;
+  private Timestamp finishedOn;
+}
@@ -0,0 +1,15 @@
+package com.d2y.d2yapiofficial.exceptions;
+
+public class TooManyRequestsException extends RuntimeException {
+  public TooManyRequestsException() {
+    super("Too Many Requests");
+  }
+
+  public TooManyRequestsException(String message) {
+    super(message);
+  }
+
+  public TooManyRequestsException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
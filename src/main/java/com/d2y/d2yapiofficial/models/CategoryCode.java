@@ -1,5 +1,7 @@
 package com.d2y.d2yapiofficial.models;
 
+import com.d2y.d2yapiofficial.utils.constants.SequenceConstant;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -18,7 +20,9 @@ public class CategoryCode implements Serializable {
   private static final long serialVersionUID = 1L;
 
   @Id
-  @GeneratedValue(strategy = GenerationType.AUTO)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "category_code_seq")
+  @SequenceGenerator(name = "category_code_seq", sequenceName = SequenceConstant.CATEGORY_CODE,
+      allocationSize = SequenceConstant.ALLOCATION_SIZE)
   @Column(name = "category_code_id", unique = true, nullable = false)
   private Long categoryCodeId;
 
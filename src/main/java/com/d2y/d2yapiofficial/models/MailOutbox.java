@@ -0,0 +1,83 @@
+package com.d2y.d2yapiofficial.models;
+
+import java.sql.Timestamp;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+
+import com.d2y.d2yapiofficial.utils.constants.SequenceConstant;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "mail_outbox", indexes = {
+    @Index(name = "idx_mail_outbox_pending", columnList = "status, next_attempt_at")
+})
+public class MailOutbox {
+
+  public enum Status {
+    PENDING, SENT, FAILED
+  }
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "mail_outbox_seq")
+  @SequenceGenerator(name = "mail_outbox_seq", sequenceName = SequenceConstant.MAIL_OUTBOX,
+      allocationSize = SequenceConstant.ALLOCATION_SIZE)
+  @Column(name = "mail_outbox_id")
+  private Long mailOutboxId;
+
+  @Column(name = "recipient", nullable = false)
+  private String recipient;
+
+  @Column(name = "subject")
+  private String subject;
+
+  @Column(name = "username")
+  private String username;
+
+  @Column(name = "verification_url", length = 1000)
+  private String verificationUrl;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "status", length = 16, nullable = false)
+  private Status status;
+
+  @Column(name = "attempts", nullable = false)
+  private int attempts;
+
+  @Column(name = "next_attempt_at", nullable = false)
+  private Timestamp nextAttemptAt;
+
+  @Column(name = "last_error", length = 1000)
+  private String lastError;
+
+  @Column(name = "created_on", nullable = false)
+  private Timestamp createdOn;
+
+  @Column(name = "sent_on")
+  private Timestamp sentOn;
+
+  public NotificationEmail toNotificationEmail() {
+    NotificationEmail notificationEmail = new NotificationEmail();
+    notificationEmail.setRecipient(recipient);
+    notificationEmail.setSubject(subject);
+    notificationEmail.setUsername(username);
+    notificationEmail.setVerificationUrl(verificationUrl);
+    return notificationEmail;
+  }
+}
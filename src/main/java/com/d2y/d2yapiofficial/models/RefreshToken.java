@@ -1,5 +1,7 @@
 package com.d2y.d2yapiofficial.models;
 
+import com.d2y.d2yapiofficial.utils.constants.SequenceConstant;
+
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -9,6 +11,8 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
 
 import java.sql.Timestamp;
@@ -17,16 +21,34 @@ import java.sql.Timestamp;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table(name = "refresh_token")
+@Table(name = "refresh_token", indexes = {
+    @Index(name = "uk_refresh_token_hash", columnList = "token_hash", unique = true),
+    @Index(name = "idx_refresh_token_family", columnList = "family_id"),
+    @Index(name = "idx_refresh_token_created_on", columnList = "created_on")
+})
 public class RefreshToken {
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "refresh_token_seq")
+  @SequenceGenerator(name = "refresh_token_seq", sequenceName = SequenceConstant.REFRESH_TOKEN,
+      allocationSize = SequenceConstant.ALLOCATION_SIZE)
   @Column(name = "refresh_token_id")
   private Long refreshTokenId;
 
-  @Column(name = "token")
-  private String token;
+  // SHA-256 hex of the token handed to the client; the raw token is never stored.
+  @Column(name = "token_hash", length = 64, nullable = false)
+  private String tokenHash;
+
+  // Shared by every token rotated from the same login.
+  @Column(name = "family_id", length = 36, nullable = false)
+  private String familyId;
+
+  // The user the family was issued to; refreshed access tokens are minted for it.
+  @Column(name = "user_id")
+  private Long userId;
+
+  @Column(name = "consumed", nullable = false)
+  private boolean consumed;
 
   @Column(name = "created_on")
   private Timestamp createdOn;
-}
\ No newline at end of file
+}
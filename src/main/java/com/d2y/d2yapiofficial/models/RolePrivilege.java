@@ -1,5 +1,7 @@
 package com.d2y.d2yapiofficial.models;
 
+import com.d2y.d2yapiofficial.utils.constants.SequenceConstant;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -14,10 +16,13 @@ import lombok.NoArgsConstructor;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "role_privilege")
+@Table(name = "role_privilege", uniqueConstraints = @UniqueConstraint(name = "uk_role_privilege_role_privilege", columnNames = {
+    "role_id", "privilege_id" }))
 public class RolePrivilege {
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "role_privilege_seq")
+  @SequenceGenerator(name = "role_privilege_seq", sequenceName = SequenceConstant.ROLE_PRIVILEGE,
+      allocationSize = SequenceConstant.ALLOCATION_SIZE)
   @Column(name = "role_privilege_id", unique = true, nullable = false)
   private Long rolePrivilegeId;
 
@@ -6,17 +6,20 @@ import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.OneToOne;
 
+import com.d2y.d2yapiofficial.utils.constants.SequenceConstant;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import static javax.persistence.FetchType.LAZY;
-import static javax.persistence.GenerationType.IDENTITY;
+import static javax.persistence.GenerationType.SEQUENCE;
 
 import java.sql.Timestamp;
 
 import javax.persistence.Column;
+import javax.persistence.SequenceGenerator;
 
 @Data
 @Builder
@@ -25,7 +28,9 @@ import javax.persistence.Column;
 @Entity
 public class Token {
   @Id
-  @GeneratedValue(strategy = IDENTITY)
+  @GeneratedValue(strategy = SEQUENCE, generator = "token_seq")
+  @SequenceGenerator(name = "token_seq", sequenceName = SequenceConstant.TOKEN,
+      allocationSize = SequenceConstant.ALLOCATION_SIZE)
   @Column(name = "token_id")
   private Long tokenId;
 
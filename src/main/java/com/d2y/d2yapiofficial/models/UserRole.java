@@ -11,7 +11,11 @@ import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.OneToOne;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+import com.d2y.d2yapiofficial.utils.constants.SequenceConstant;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -22,10 +26,13 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "user_role", schema = "public")
+@Table(name = "user_role", schema = "public", uniqueConstraints = @UniqueConstraint(name = "uk_user_role_user_role", columnNames = {
+    "user_id", "role_id" }))
 public class UserRole {
   @Id
-  @GeneratedValue(strategy = GenerationType.AUTO)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_role_seq")
+  @SequenceGenerator(name = "user_role_seq", sequenceName = SequenceConstant.USER_ROLE,
+      allocationSize = SequenceConstant.ALLOCATION_SIZE)
   @Column(name = "user_role_id", unique = true, nullable = false)
   private Long userRoleId;
 
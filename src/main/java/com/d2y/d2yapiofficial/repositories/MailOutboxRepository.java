@@ -0,0 +1,22 @@
+package com.d2y.d2yapiofficial.repositories;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.d2y.d2yapiofficial.models.MailOutbox;
+
+public interface MailOutboxRepository extends JpaRepository<MailOutbox, Long> {
+
+  // SKIP LOCKED lets several dispatchers claim disjoint batches concurrently.
+  @Query(value = "SELECT * FROM mail_outbox WHERE status = 'PENDING' AND next_attempt_at <= :now "
+      + "ORDER BY mail_outbox_id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+  List<MailOutbox> lockDue(@Param("now") Timestamp now, @Param("limit") int limit);
+
+  @Query("SELECT MIN(mo.createdOn) FROM MailOutbox mo WHERE mo.status = 'PENDING'")
+  Timestamp findOldestPending();
+
+}
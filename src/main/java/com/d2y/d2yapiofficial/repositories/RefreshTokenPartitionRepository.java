@@ -0,0 +1,88 @@
+package com.d2y.d2yapiofficial.repositories;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Maintenance of the weekly range partitions of {@code refresh_token} (see
+ * {@code db/refresh_token_partitioning.sql}). Partitions are named
+ * {@code refresh_token_pYYYYMMDD} after the Monday they start on.
+ */
+@Repository
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class RefreshTokenPartitionRepository {
+
+  private static final String TABLE = "refresh_token";
+  private static final String PREFIX = TABLE + "_p";
+  private static final String DEFAULT_PARTITION = TABLE + "_default";
+  private static final Pattern PARTITION_NAME = Pattern.compile(PREFIX + "\\d{8}");
+  private static final DateTimeFormatter SUFFIX = DateTimeFormatter.BASIC_ISO_DATE;
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public boolean isPartitioned() {
+    Integer count = jdbcTemplate.queryForObject(
+        "SELECT COUNT(*) FROM pg_partitioned_table pt JOIN pg_class c ON c.oid = pt.partrelid "
+            + "WHERE c.relname = ? AND pg_table_is_visible(c.oid)",
+        Integer.class, TABLE);
+    return count != null && count > 0;
+  }
+
+  public void createPartition(LocalDate weekStart) {
+    jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partitionName(weekStart) + " PARTITION OF " + TABLE
+        + " FOR VALUES FROM ('" + weekStart + "') TO ('" + weekStart.plusWeeks(1) + "')");
+  }
+
+  public List<LocalDate> findPartitionWeeks() {
+    return jdbcTemplate.queryForList(
+        "SELECT c.relname FROM pg_inherits i "
+            + "JOIN pg_class c ON c.oid = i.inhrelid "
+            + "JOIN pg_class p ON p.oid = i.inhparent "
+            + "WHERE p.relname = ? AND pg_table_is_visible(p.oid)",
+        String.class, TABLE)
+        .stream()
+        .filter(name -> PARTITION_NAME.matcher(name).matches())
+        .map(name -> LocalDate.parse(name.substring(PREFIX.length()), SUFFIX))
+        .sorted()
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Detaches and drops the partition, returning the planner's estimate of the
+   * rows it held ({@code pg_class.reltuples}, kept up to date by autovacuum);
+   * counting them exactly would scan the whole partition.
+   */
+  public long dropPartition(LocalDate weekStart) {
+    String partition = partitionName(weekStart);
+    Long rows = jdbcTemplate.queryForObject(
+        "SELECT COALESCE((SELECT GREATEST(reltuples, 0)::bigint FROM pg_class WHERE oid = to_regclass(?)), 0)",
+        Long.class, partition);
+    jdbcTemplate.execute("ALTER TABLE " + TABLE + " DETACH PARTITION " + partition);
+    jdbcTemplate.execute("DROP TABLE " + partition);
+    return rows == null ? 0 : rows;
+  }
+
+  /**
+   * Deletes up to {@code limit} rows created before the cutoff from the default
+   * partition, which catches rows outside every weekly range and is never
+   * dropped. Returns the number of rows deleted.
+   */
+  public int deleteDefaultChunkCreatedBefore(Timestamp cutoff, int limit) {
+    return jdbcTemplate.update("DELETE FROM " + DEFAULT_PARTITION + " WHERE refresh_token_id IN "
+        + "(SELECT refresh_token_id FROM " + DEFAULT_PARTITION + " WHERE created_on < ? LIMIT ?)", cutoff, limit);
+  }
+
+  private String partitionName(LocalDate weekStart) {
+    return PREFIX + weekStart.format(SUFFIX);
+  }
+}
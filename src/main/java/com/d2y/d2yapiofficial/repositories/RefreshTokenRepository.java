@@ -2,6 +2,8 @@ package com.d2y.d2yapiofficial.repositories;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.d2y.d2yapiofficial.models.RefreshToken;
 
@@ -12,12 +14,25 @@ import javax.transaction.Transactional;
 
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
 
-  Optional<RefreshToken> findByToken(String token);
+  Optional<RefreshToken> findByTokenHash(String tokenHash);
 
-  void deleteByToken(String token);
+  @Modifying
+  @Query("UPDATE RefreshToken rt SET rt.consumed = true WHERE rt.refreshTokenId = :id AND rt.consumed = false")
+  int consume(@Param("id") Long id);
+
+  @Modifying
+  @Query("DELETE FROM RefreshToken rt WHERE rt.familyId = :familyId")
+  int deleteByFamily(@Param("familyId") String familyId);
+
+  @Modifying
+  @Query("DELETE FROM RefreshToken rt WHERE rt.familyId IN "
+      + "(SELECT f.familyId FROM RefreshToken f WHERE f.tokenHash = :tokenHash)")
+  int deleteFamilyByTokenHash(@Param("tokenHash") String tokenHash);
 
   @Modifying
   @Transactional
-  void deleteByCreatedOnBefore(Timestamp timestamp);
+  @Query(value = "DELETE FROM refresh_token WHERE refresh_token_id IN "
+      + "(SELECT refresh_token_id FROM refresh_token WHERE created_on < :cutoff LIMIT :limit)", nativeQuery = true)
+  int deleteChunkCreatedBefore(@Param("cutoff") Timestamp cutoff, @Param("limit") int limit);
 
 }
@@ -0,0 +1,102 @@
+package com.d2y.d2yapiofficial.repositories;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.d2y.d2yapiofficial.utils.constants.SequenceConstant;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Set-based writes of {@code role_privilege} for replacing a role's privilege
+ * set, bypassing the persistence context. Inserts rely on the unique
+ * (role_id, privilege_id) constraint from {@code db/unique_assignments.sql}.
+ */
+@Repository
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class RolePrivilegeJdbcRepository {
+
+  private final JdbcTemplate jdbcTemplate;
+  private final SequenceAllocator sequenceAllocator;
+
+  @Value("${user-role.bulk.batch-size:500}")
+  private int batchSize;
+
+  /**
+   * Existing privileges of the role as privilege id to active.
+   */
+  public Map<Long, Boolean> findPrivileges(Long roleId) {
+    Map<Long, Boolean> privileges = new HashMap<>();
+    jdbcTemplate.query(
+        "SELECT privilege_id, is_active FROM role_privilege WHERE role_id = ? AND privilege_id IS NOT NULL",
+        rs -> {
+          privileges.merge(rs.getLong("privilege_id"), rs.getBoolean("is_active"), Boolean::logicalOr);
+        }, roleId);
+    return privileges;
+  }
+
+  public void upsertPrivileges(Long roleId, List<Long> privilegeIds, Long createdBy, Timestamp now) {
+    if (privilegeIds.isEmpty()) {
+      return;
+    }
+
+    List<Long> ids = sequenceAllocator.allocate(SequenceConstant.ROLE_PRIVILEGE, privilegeIds.size());
+    List<Long[]> rows = new ArrayList<>(privilegeIds.size());
+    for (int i = 0; i < privilegeIds.size(); i++) {
+      rows.add(new Long[] { ids.get(i), privilegeIds.get(i) });
+    }
+    jdbcTemplate.batchUpdate(
+        "INSERT INTO role_privilege (role_privilege_id, role_id, privilege_id, created_on, updated_on, created_by, "
+            + "updated_by, is_active) VALUES (?, ?, ?, ?, ?, ?, ?, true) "
+            + "ON CONFLICT (role_id, privilege_id) DO UPDATE SET is_active = true, "
+            + "updated_on = EXCLUDED.updated_on, updated_by = EXCLUDED.updated_by",
+        rows, batchSize, (ps, row) -> {
+          ps.setLong(1, row[0]);
+          ps.setLong(2, roleId);
+          ps.setLong(3, row[1]);
+          ps.setTimestamp(4, now);
+          ps.setTimestamp(5, now);
+          ps.setObject(6, createdBy);
+          ps.setObject(7, createdBy);
+        });
+  }
+
+  /**
+   * Sets {@code is_active} on the role's rows for the given privileges, in one
+   * statement; rows already in that state are left untouched.
+   */
+  public int setActive(Long roleId, Collection<Long> privilegeIds, boolean active, Long updatedBy, Timestamp now) {
+    if (privilegeIds.isEmpty()) {
+      return 0;
+    }
+    return jdbcTemplate.update(con -> {
+      PreparedStatement ps = con.prepareStatement(
+          "UPDATE role_privilege SET is_active = ?, updated_on = ?, updated_by = ? "
+              + "WHERE role_id = ? AND privilege_id = ANY(?) AND is_active <> ?");
+      ps.setBoolean(1, active);
+      ps.setTimestamp(2, now);
+      ps.setObject(3, updatedBy);
+      ps.setLong(4, roleId);
+      ps.setArray(5, con.createArrayOf("bigint", privilegeIds.toArray()));
+      ps.setBoolean(6, active);
+      return ps;
+    });
+  }
+
+  public int deactivateAll(Long roleId, Long updatedBy, Timestamp now) {
+    return jdbcTemplate.update(
+        "UPDATE role_privilege SET is_active = false, updated_on = ?, updated_by = COALESCE(?, updated_by) "
+            + "WHERE role_id = ? AND is_active = true",
+        now, updatedBy, roleId);
+  }
+}
@@ -1,5 +1,6 @@
 package com.d2y.d2yapiofficial.repositories;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -27,12 +28,25 @@ public interface RolePrivilegeRepository extends JpaRepository<RolePrivilege, Lo
       +
       "LEFT JOIN category_code cc ON rp.role_id = cc.category_code_id " +
       "LEFT JOIN category_code pi ON rp.privilege_id = pi.category_code_id " +
-      "WHERE (rp.active = true AND (:search IS NULL OR LOWER (cc.code_name) LIKE %:search% " +
+      "WHERE (rp.is_active = true AND (:search IS NULL OR LOWER (cc.code_name) LIKE %:search% " +
       "OR LOWER (pi.code_name) LIKE %:search%)) " +
       "GROUP BY rp.role_id, cc.code_name")
   Page<Map<String, Object>> findAllRoleId(Pageable pageable, @Param("search") String search);
 
-  @Query(nativeQuery = true, value = "SELECT COUNT(DISTINCT ur.role_id) FROM role_privilege ur WHERE (ur.active = 'true')")
+  @Query(nativeQuery = true, value = "SELECT rp.role_id FROM role_privilege rp "
+      + "LEFT JOIN category_code cc ON rp.role_id = cc.category_code_id "
+      + "LEFT JOIN category_code pi ON rp.privilege_id = pi.category_code_id "
+      + "WHERE rp.is_active = true AND (LOWER(cc.code_name) LIKE %:search% OR LOWER(pi.code_name) LIKE %:search%) "
+      + "AND rp.role_id > :afterId "
+      + "GROUP BY rp.role_id ORDER BY rp.role_id LIMIT :limit")
+  List<Map<String, Object>> findRoleIdsAfter(@Param("search") String search, @Param("afterId") Long afterId,
+      @Param("limit") int limit);
+
+  @Query("SELECT rp FROM RolePrivilege rp "
+      + "WHERE rp.roleId.categoryCodeId IN :roleIds AND rp.active = true ORDER BY rp.rolePrivilegeId")
+  List<RolePrivilege> findActiveByRoleIds(@Param("roleIds") Collection<Long> roleIds);
+
+  @Query(nativeQuery = true, value = "SELECT COUNT(DISTINCT ur.role_id) FROM role_privilege ur WHERE ur.is_active = true")
   Long findRolePrivilegeActive();
 
   @Query("SELECT rp FROM RolePrivilege rp WHERE rp.roleId = :id AND rp.active = true")
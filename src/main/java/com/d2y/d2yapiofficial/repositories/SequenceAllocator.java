@@ -0,0 +1,42 @@
+package com.d2y.d2yapiofficial.repositories;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.d2y.d2yapiofficial.utils.constants.SequenceConstant;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Hands out ids for JDBC inserts from the entity sequences, in the same
+ * pooled-lo blocks Hibernate uses: every value fetched is the low end of
+ * {@link SequenceConstant#ALLOCATION_SIZE} reserved ids.
+ */
+@Repository
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class SequenceAllocator {
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public List<Long> allocate(String sequence, int count) {
+    if (count == 0) {
+      return new ArrayList<>();
+    }
+
+    int blocks = (count + SequenceConstant.ALLOCATION_SIZE - 1) / SequenceConstant.ALLOCATION_SIZE;
+    List<Long> blockStarts = jdbcTemplate.queryForList(
+        "SELECT nextval(?::regclass) FROM generate_series(1, ?)", Long.class, sequence, blocks);
+
+    List<Long> ids = new ArrayList<>(count);
+    for (Long start : blockStarts) {
+      for (int i = 0; i < SequenceConstant.ALLOCATION_SIZE && ids.size() < count; i++) {
+        ids.add(start + i);
+      }
+    }
+    return ids;
+  }
+}
@@ -2,9 +2,13 @@ package com.d2y.d2yapiofficial.repositories;
 
 import java.sql.Timestamp;
 import java.util.Optional;
-import java.util.List;
+
+import javax.transaction.Transactional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.d2y.d2yapiofficial.models.Token;
 
@@ -12,8 +16,31 @@ public interface TokenRepository extends JpaRepository<Token, Long> {
 
   Optional<Token> findByToken(String token);
 
-  List<Token> findByExpiryDateBeforeAndExpiredIsFalse(Timestamp expiryDate);
-
-  List<Token> findByExpiredIsTrue();
+  // Keyset chunking: the upper token_id of the next chunk of at most :limit
+  // matching rows after :afterId, or null when none are left.
+
+  @Query(value = "SELECT MAX(t.token_id) FROM (SELECT token_id FROM token "
+      + "WHERE token_id > :afterId AND is_expired = false AND expiry_date < :cutoff "
+      + "ORDER BY token_id LIMIT :limit) t", nativeQuery = true)
+  Long findExpirableChunkEnd(@Param("afterId") long afterId, @Param("cutoff") Timestamp cutoff,
+      @Param("limit") int limit);
+
+  @Modifying
+  @Transactional
+  @Query(value = "UPDATE token SET is_expired = true "
+      + "WHERE token_id > :afterId AND token_id <= :upToId AND is_expired = false AND expiry_date < :cutoff",
+      nativeQuery = true)
+  int expireRange(@Param("afterId") long afterId, @Param("upToId") long upToId, @Param("cutoff") Timestamp cutoff);
+
+  @Query(value = "SELECT MAX(t.token_id) FROM (SELECT token_id FROM token "
+      + "WHERE token_id > :afterId AND is_expired = true "
+      + "ORDER BY token_id LIMIT :limit) t", nativeQuery = true)
+  Long findExpiredChunkEnd(@Param("afterId") long afterId, @Param("limit") int limit);
+
+  @Modifying
+  @Transactional
+  @Query(value = "DELETE FROM token WHERE token_id > :afterId AND token_id <= :upToId AND is_expired = true",
+      nativeQuery = true)
+  int deleteExpiredRange(@Param("afterId") long afterId, @Param("upToId") long upToId);
 
 }
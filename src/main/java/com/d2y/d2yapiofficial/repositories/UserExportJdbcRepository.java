@@ -0,0 +1,63 @@
+package com.d2y.d2yapiofficial.repositories;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.d2y.d2yapiofficial.dto.role.RoleDTO;
+import com.d2y.d2yapiofficial.dto.user.UserExportDTO;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Forward-only read of every active user with the ids of their active roles,
+ * in user id order. Rows are fetched {@code user.export.fetch-size} at a time,
+ * which the PostgreSQL driver only does inside a transaction; callers must
+ * hold one open for the whole iteration.
+ */
+@Repository
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class UserExportJdbcRepository {
+
+  private static final String SELECT_USERS = "SELECT u.user_id, u.username, u.email, u.phone_number, "
+      + "u.registration_date, u.last_login, u.is_enable, "
+      + "ARRAY(SELECT ur.role_id FROM user_role ur WHERE ur.user_id = u.user_id AND ur.is_active = true "
+      + "AND ur.role_id IS NOT NULL ORDER BY ur.role_id) AS role_ids "
+      + "FROM users u WHERE u.is_active = true ORDER BY u.user_id";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  @Value("${user.export.fetch-size:1000}")
+  private int fetchSize;
+
+  public void forEachActiveUser(Consumer<UserExportDTO> consumer) {
+    jdbcTemplate.query(con -> {
+      PreparedStatement ps = con.prepareStatement(SELECT_USERS, ResultSet.TYPE_FORWARD_ONLY,
+          ResultSet.CONCUR_READ_ONLY);
+      ps.setFetchSize(fetchSize);
+      return ps;
+    }, rs -> {
+      List<RoleDTO> roles = new ArrayList<>();
+      for (Object roleId : (Object[]) rs.getArray("role_ids").getArray()) {
+        roles.add(RoleDTO.builder().roleId(((Number) roleId).longValue()).build());
+      }
+      consumer.accept(UserExportDTO.builder()
+          .userId(rs.getLong("user_id"))
+          .username(rs.getString("username"))
+          .email(rs.getString("email"))
+          .phoneNumber(rs.getString("phone_number"))
+          .registrationDate(rs.getTimestamp("registration_date"))
+          .lastLogin(rs.getTimestamp("last_login"))
+          .enabled(rs.getBoolean("is_enable"))
+          .roles(roles)
+          .build());
+    });
+  }
+}
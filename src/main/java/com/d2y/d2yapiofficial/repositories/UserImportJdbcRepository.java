@@ -0,0 +1,118 @@
+package com.d2y.d2yapiofficial.repositories;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.d2y.d2yapiofficial.models.MailOutbox;
+import com.d2y.d2yapiofficial.models.NotificationEmail;
+import com.d2y.d2yapiofficial.models.Token;
+import com.d2y.d2yapiofficial.models.User;
+import com.d2y.d2yapiofficial.utils.constants.SequenceConstant;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Batched writes of {@code users}, verification {@code token}s and
+ * {@code mail_outbox} rows for the bulk user import, bypassing the
+ * persistence context. Ids come from the entity sequences through
+ * {@link SequenceAllocator}.
+ */
+@Repository
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class UserImportJdbcRepository {
+
+  private final JdbcTemplate jdbcTemplate;
+  private final SequenceAllocator sequenceAllocator;
+
+  @Value("${user.import.batch-size:1000}")
+  private int batchSize;
+
+  public Set<String> findExistingEmails(Collection<String> emails) {
+    Set<String> existing = new HashSet<>();
+    if (emails.isEmpty()) {
+      return existing;
+    }
+    jdbcTemplate.query(con -> {
+      PreparedStatement ps = con.prepareStatement("SELECT email FROM users WHERE email = ANY(?)");
+      ps.setArray(1, con.createArrayOf("varchar", emails.toArray()));
+      return ps;
+    }, rs -> {
+      existing.add(rs.getString("email"));
+    });
+    return existing;
+  }
+
+  /**
+   * Inserts the users and sets their generated ids.
+   */
+  public void insertUsers(List<User> users) {
+    List<Long> ids = sequenceAllocator.allocate(SequenceConstant.USERS, users.size());
+    for (int i = 0; i < users.size(); i++) {
+      users.get(i).setUserId(ids.get(i));
+    }
+    jdbcTemplate.batchUpdate(
+        "INSERT INTO users (user_id, username, password, email, registration_date, created_on, updated_on, "
+            + "is_active, is_enable) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+        users, batchSize, (ps, user) -> {
+          ps.setLong(1, user.getUserId());
+          ps.setString(2, user.getUsername());
+          ps.setString(3, user.getPassword());
+          ps.setString(4, user.getEmail());
+          ps.setTimestamp(5, user.getRegistrationDate());
+          ps.setTimestamp(6, user.getCreatedOn());
+          ps.setTimestamp(7, user.getUpdatedOn());
+          ps.setBoolean(8, user.isActive());
+          ps.setBoolean(9, user.isEnabled());
+        });
+  }
+
+  public void insertTokens(List<Token> tokens) {
+    List<Long> ids = sequenceAllocator.allocate(SequenceConstant.TOKEN, tokens.size());
+    for (int i = 0; i < tokens.size(); i++) {
+      tokens.get(i).setTokenId(ids.get(i));
+    }
+    jdbcTemplate.batchUpdate(
+        "INSERT INTO token (token_id, token, user_id, expiry_date, is_expired, created_on) "
+            + "VALUES (?, ?, ?, ?, ?, ?)",
+        tokens, batchSize, (ps, token) -> {
+          ps.setLong(1, token.getTokenId());
+          ps.setString(2, token.getToken());
+          ps.setLong(3, token.getUser().getUserId());
+          ps.setTimestamp(4, token.getExpiryDate());
+          ps.setBoolean(5, token.isExpired());
+          ps.setTimestamp(6, token.getCreatedOn());
+        });
+  }
+
+  /**
+   * Queues the mails in the outbox, to be delivered from {@code nextAttemptAt}
+   * on.
+   */
+  public void insertMails(List<NotificationEmail> mails, Timestamp nextAttemptAt, Timestamp now) {
+    List<Long> ids = sequenceAllocator.allocate(SequenceConstant.MAIL_OUTBOX, mails.size());
+    List<Object[]> rows = new ArrayList<>(mails.size());
+    for (int i = 0; i < mails.size(); i++) {
+      NotificationEmail mail = mails.get(i);
+      rows.add(new Object[] { ids.get(i), mail.getRecipient(), mail.getSubject(), mail.getUsername(),
+          mail.getVerificationUrl(), MailOutbox.Status.PENDING.name(), 0, nextAttemptAt, now });
+    }
+    jdbcTemplate.batchUpdate(
+        "INSERT INTO mail_outbox (mail_outbox_id, recipient, subject, username, verification_url, status, "
+            + "attempts, next_attempt_at, created_on) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+        rows, batchSize, (ps, row) -> {
+          for (int i = 0; i < row.length; i++) {
+            ps.setObject(i + 1, row[i]);
+          }
+        });
+  }
+}
@@ -1,13 +1,17 @@
 package com.d2y.d2yapiofficial.repositories;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import com.d2y.d2yapiofficial.dto.user.UserContactDTO;
 import com.d2y.d2yapiofficial.dto.user.UserResponseDTO;
 import com.d2y.d2yapiofficial.models.User;
 
@@ -27,7 +31,42 @@ public interface UserRepository extends JpaRepository<User, Long> {
       "OR LOWER(u.email) LIKE %:search%) AND u.active = true")
   Page<UserResponseDTO> getListUsers(@Param("search") String search, Pageable pageable);
 
+  // Keyset pages for cursor pagination; Pageable only carries the limit, so no count query runs.
+  @Query("SELECT new com.d2y.d2yapiofficial.dto.user.UserResponseDTO(u) FROM User u "
+      + "WHERE (LOWER(u.username) LIKE %:search% OR LOWER(u.email) LIKE %:search%) AND u.active = true "
+      + "AND u.userId > :afterId ORDER BY u.userId")
+  List<UserResponseDTO> getListUsersAfterId(@Param("search") String search, @Param("afterId") Long afterId,
+      Pageable pageable);
+
+  @Query("SELECT new com.d2y.d2yapiofficial.dto.user.UserResponseDTO(u) FROM User u "
+      + "WHERE (LOWER(u.username) LIKE %:search% OR LOWER(u.email) LIKE %:search%) AND u.active = true "
+      + "AND (COALESCE(LOWER(u.username), '') > :afterKey "
+      + "OR (COALESCE(LOWER(u.username), '') = :afterKey AND u.userId > :afterId)) "
+      + "ORDER BY COALESCE(LOWER(u.username), ''), u.userId")
+  List<UserResponseDTO> getListUsersAfterUsername(@Param("search") String search,
+      @Param("afterKey") String afterKey, @Param("afterId") Long afterId, Pageable pageable);
+
   @Query(value = "SELECT * FROM User u WHERE u.email = :email AND u.is_active = true", nativeQuery = true)
   Optional<User> findByEmailAndActive(String email);
 
+  // Keyset cursor over active, verified users; pass the last userId seen.
+  @Query("SELECT new com.d2y.d2yapiofficial.dto.user.UserContactDTO(u.userId, u.email, u.username) FROM User u "
+      + "WHERE u.userId > :afterId AND u.active = true AND u.enabled = true ORDER BY u.userId")
+  List<UserContactDTO> findContactsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+  // Keyset cursor over active users, used to bootstrap the search index.
+  @Query("SELECT new com.d2y.d2yapiofficial.dto.user.UserContactDTO(u.userId, u.email, u.username) FROM User u "
+      + "WHERE u.userId > :afterId AND u.active = true ORDER BY u.userId")
+  List<UserContactDTO> findSearchEntriesAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+  @Query("SELECT u.userId FROM User u WHERE u.userId IN :ids AND u.active = true")
+  List<Long> findActiveIds(@Param("ids") Collection<Long> ids);
+
+  @Query("SELECT COUNT(u) FROM User u WHERE u.active = true AND u.enabled = true")
+  long countContacts();
+
+  @Modifying
+  @Query("UPDATE User u SET u.enabled = true WHERE u.userId = :id AND u.enabled = false")
+  int enableUser(@Param("id") Long id);
+
 }
\ No newline at end of file
@@ -0,0 +1,129 @@
+package com.d2y.d2yapiofficial.repositories;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.d2y.d2yapiofficial.utils.constants.SequenceConstant;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Set-based reads and batched writes of {@code user_role} for bulk role
+ * assignment and set replacement, bypassing the persistence context. Id lists
+ * are bound as one PostgreSQL array, so the statement text does not depend on
+ * their size. Inserts rely on the unique (user_id, role_id) constraint from
+ * {@code db/unique_assignments.sql}.
+ */
+@Repository
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class UserRoleJdbcRepository {
+
+  private final JdbcTemplate jdbcTemplate;
+  private final SequenceAllocator sequenceAllocator;
+
+  @Value("${user-role.bulk.batch-size:500}")
+  private int batchSize;
+
+  /**
+   * Existing assignments of the given users as user id to (role id to active).
+   */
+  public Map<Long, Map<Long, Boolean>> findAssignments(Collection<Long> userIds) {
+    Map<Long, Map<Long, Boolean>> assignments = new HashMap<>();
+    jdbcTemplate.query(con -> {
+      PreparedStatement ps = con.prepareStatement(
+          "SELECT user_id, role_id, is_active FROM user_role WHERE user_id = ANY(?) AND role_id IS NOT NULL");
+      Array ids = con.createArrayOf("bigint", userIds.toArray());
+      ps.setArray(1, ids);
+      return ps;
+    }, rs -> {
+      assignments.computeIfAbsent(rs.getLong("user_id"), key -> new HashMap<>())
+          .merge(rs.getLong("role_id"), rs.getBoolean("is_active"), Boolean::logicalOr);
+    });
+    return assignments;
+  }
+
+  /**
+   * Inserts active assignments given as {user id, role id} pairs; a pair that
+   * already exists (e.g. written concurrently) is re-activated instead.
+   */
+  public void upsertAssignments(List<Long[]> pairs, Long createdBy, Timestamp now) {
+    if (pairs.isEmpty()) {
+      return;
+    }
+
+    List<Long> ids = sequenceAllocator.allocate(SequenceConstant.USER_ROLE, pairs.size());
+    List<Long[]> rows = new ArrayList<>(pairs.size());
+    for (int i = 0; i < pairs.size(); i++) {
+      rows.add(new Long[] { ids.get(i), pairs.get(i)[0], pairs.get(i)[1] });
+    }
+    jdbcTemplate.batchUpdate(
+        "INSERT INTO user_role (user_role_id, user_id, role_id, created_on, updated_on, created_by, updated_by, "
+            + "is_active) VALUES (?, ?, ?, ?, ?, ?, ?, true) "
+            + "ON CONFLICT (user_id, role_id) DO UPDATE SET is_active = true, "
+            + "updated_on = EXCLUDED.updated_on, updated_by = EXCLUDED.updated_by",
+        rows, batchSize, (ps, row) -> {
+          ps.setLong(1, row[0]);
+          ps.setLong(2, row[1]);
+          ps.setLong(3, row[2]);
+          ps.setTimestamp(4, now);
+          ps.setTimestamp(5, now);
+          ps.setObject(6, createdBy);
+          ps.setObject(7, createdBy);
+        });
+  }
+
+  /**
+   * Re-activates existing, inactive assignments given as {user id, role id}
+   * pairs.
+   */
+  public void reactivateAssignments(List<Long[]> pairs, Long updatedBy, Timestamp now) {
+    jdbcTemplate.batchUpdate(
+        "UPDATE user_role SET is_active = true, updated_on = ?, updated_by = ? WHERE user_id = ? AND role_id = ?",
+        pairs, batchSize, (ps, pair) -> {
+          ps.setTimestamp(1, now);
+          ps.setObject(2, updatedBy);
+          ps.setLong(3, pair[0]);
+          ps.setLong(4, pair[1]);
+        });
+  }
+
+  /**
+   * Sets {@code is_active} on the user's assignments of the given roles, in one
+   * statement; rows already in that state are left untouched.
+   */
+  public int setActive(Long userId, Collection<Long> roleIds, boolean active, Long updatedBy, Timestamp now) {
+    if (roleIds.isEmpty()) {
+      return 0;
+    }
+    return jdbcTemplate.update(con -> {
+      PreparedStatement ps = con.prepareStatement(
+          "UPDATE user_role SET is_active = ?, updated_on = ?, updated_by = ? "
+              + "WHERE user_id = ? AND role_id = ANY(?) AND is_active <> ?");
+      ps.setBoolean(1, active);
+      ps.setTimestamp(2, now);
+      ps.setObject(3, updatedBy);
+      ps.setLong(4, userId);
+      ps.setArray(5, con.createArrayOf("bigint", roleIds.toArray()));
+      ps.setBoolean(6, active);
+      return ps;
+    });
+  }
+
+  public int deactivateAll(Long userId, Long updatedBy, Timestamp now) {
+    return jdbcTemplate.update(
+        "UPDATE user_role SET is_active = false, updated_on = ?, updated_by = COALESCE(?, updated_by) "
+            + "WHERE user_id = ? AND is_active = true",
+        now, updatedBy, userId);
+  }
+}
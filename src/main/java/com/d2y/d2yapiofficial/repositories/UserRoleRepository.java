@@ -1,5 +1,6 @@
 package com.d2y.d2yapiofficial.repositories;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -11,6 +12,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import com.d2y.d2yapiofficial.dto.privilege.EffectivePrivilegeDTO;
 import com.d2y.d2yapiofficial.models.CategoryCode;
 import com.d2y.d2yapiofficial.models.UserRole;
 import com.d2y.d2yapiofficial.models.User;
@@ -19,6 +21,15 @@ public interface UserRoleRepository extends JpaRepository<UserRole, Long> {
   @Query("SELECT ur FROM UserRole ur WHERE ur.userId = :id AND ur.active = true AND ur.roleId IS NOT NULL")
   List<UserRole> findByIdAndActiveList(User id);
 
+  @Query("SELECT new com.d2y.d2yapiofficial.dto.privilege.EffectivePrivilegeDTO("
+      + "r.categoryCodeId, r.codeName, p.categoryCodeId, p.codeName) "
+      + "FROM UserRole ur JOIN ur.roleId r "
+      + "LEFT JOIN RolePrivilege rp ON rp.roleId = r AND rp.active = true "
+      + "LEFT JOIN rp.privilegeId p "
+      + "WHERE ur.userId.userId = :userId AND ur.active = true "
+      + "ORDER BY r.categoryCodeId, p.categoryCodeId")
+  List<EffectivePrivilegeDTO> findEffectivePrivileges(@Param("userId") Long userId);
+
   @Query(nativeQuery = true, value = "SELECT ur.user_id, u.username AS name, COUNT(ur.user_id) AS role FROM user_role ur "
       + "LEFT JOIN users u ON ur.user_id = u.user_id "
       + "LEFT JOIN category_code cc ON ur.role_id = cc.category_code_id "
@@ -26,7 +37,20 @@ public interface UserRoleRepository extends JpaRepository<UserRole, Long> {
       + "GROUP BY ur.user_id, u.username")
   Page<Map<String, Object>> findAllUserRoleId(Pageable pageable, @Param("search") String search);
 
-  @Query(nativeQuery = true, value = "SELECT COUNT(DISTINCT ur.user_id) FROM user_role ur WHERE (ur.active = 'true')")
+  @Query(nativeQuery = true, value = "SELECT ur.user_id FROM user_role ur "
+      + "LEFT JOIN users u ON ur.user_id = u.user_id "
+      + "LEFT JOIN category_code cc ON ur.role_id = cc.category_code_id "
+      + "WHERE ur.is_active = true AND (LOWER(u.username) LIKE %:search% OR LOWER(cc.code_name) LIKE %:search%) "
+      + "AND ur.user_id > :afterId "
+      + "GROUP BY ur.user_id ORDER BY ur.user_id LIMIT :limit")
+  List<Map<String, Object>> findUserRoleIdsAfter(@Param("search") String search, @Param("afterId") Long afterId,
+      @Param("limit") int limit);
+
+  @Query("SELECT ur FROM UserRole ur JOIN FETCH ur.userId u "
+      + "WHERE u.userId IN :userIds AND ur.active = true ORDER BY ur.userRoleId")
+  List<UserRole> findActiveByUserIds(@Param("userIds") Collection<Long> userIds);
+
+  @Query(nativeQuery = true, value = "SELECT COUNT(DISTINCT ur.user_id) FROM user_role ur WHERE ur.is_active = true")
   Long findUserRoleActive();
 
   @Query("SELECT ur FROM UserRole ur WHERE ur.userId = :id AND ur.active = true")
@@ -46,8 +70,4 @@ public interface UserRoleRepository extends JpaRepository<UserRole, Long> {
 
   @Query("SELECT ur FROM UserRole ur WHERE ur.userId =:searchId")
   UserRole findUserRoleByUserId(@Param("searchId") User searchId);
-
-  @Query("SELECT CASE WHEN COUNT(cc) > 0 THEN TRUE ELSE FALSE END FROM CategoryCode cc " +
-      "WHERE cc.categoryCodeId = :id AND (cc.codeName IN ('Administrator'))")
-  boolean isPermissionForUserRoleManipulation(Long id);
 }
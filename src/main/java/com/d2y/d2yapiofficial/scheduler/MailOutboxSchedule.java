@@ -0,0 +1,95 @@
+package com.d2y.d2yapiofficial.scheduler;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.mail.MailException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.d2y.d2yapiofficial.models.MailOutbox;
+import com.d2y.d2yapiofficial.services.MailOutboxService;
+import com.d2y.d2yapiofficial.services.MailService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Delivers mail written to the outbox. Each poll claims a batch in a short
+ * transaction, sends outside of any transaction and records each outcome
+ * separately. Point {@code spring.mail.host}/{@code port} at a local SMTP
+ * sink to exercise it without a real mail server.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "mail.outbox.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class MailOutboxSchedule {
+
+  private final MailOutboxService mailOutboxService;
+  private final MailService mailService;
+  private final MeterRegistry meterRegistry;
+
+  private final AtomicLong lagMillis = new AtomicLong();
+
+  @Value("${mail.outbox.batch-size:50}")
+  private int batchSize;
+
+  private Counter sent;
+  private Counter retried;
+  private Counter failed;
+  private Timer deliveryLag;
+
+  @PostConstruct
+  void registerMetrics() {
+    Gauge.builder("mail.outbox.lag", lagMillis, AtomicLong::get)
+        .description("Age of the oldest pending outbox mail")
+        .baseUnit("milliseconds")
+        .register(meterRegistry);
+    sent = Counter.builder("mail.outbox.sent").register(meterRegistry);
+    retried = Counter.builder("mail.outbox.retried").register(meterRegistry);
+    failed = Counter.builder("mail.outbox.failed").register(meterRegistry);
+    deliveryLag = Timer.builder("mail.outbox.delivery.lag")
+        .description("Time from enqueue to successful send")
+        .register(meterRegistry);
+  }
+
+  @Scheduled(fixedDelayString = "${mail.outbox.poll-interval:5000}")
+  public void dispatch() {
+    List<MailOutbox> batch;
+    do {
+      batch = mailOutboxService.claim(batchSize);
+      batch.forEach(this::deliver);
+    } while (batch.size() == batchSize);
+
+    Timestamp oldest = mailOutboxService.getOldestPending();
+    lagMillis.set(oldest == null ? 0 : System.currentTimeMillis() - oldest.getTime());
+  }
+
+  private void deliver(MailOutbox mail) {
+    try {
+      mailService.sendMail(mail.toNotificationEmail());
+      mailOutboxService.markSent(mail.getMailOutboxId());
+      sent.increment();
+      deliveryLag.record(System.currentTimeMillis() - mail.getCreatedOn().getTime(), TimeUnit.MILLISECONDS);
+    } catch (MailException ex) {
+      log.warn("Sending mail {} to {} failed: {}", mail.getMailOutboxId(), mail.getRecipient(), ex.getMessage());
+      if (mailOutboxService.markFailed(mail.getMailOutboxId(), ex.getMessage())) {
+        retried.increment();
+      } else {
+        failed.increment();
+      }
+    }
+  }
+}
@@ -1,28 +1,164 @@
 package com.d2y.d2yapiofficial.scheduler;
 
 import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+
+import javax.annotation.PostConstruct;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import com.d2y.d2yapiofficial.repositories.RefreshTokenPartitionRepository;
 import com.d2y.d2yapiofficial.repositories.RefreshTokenRepository;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Purges refresh tokens older than the retention period. In {@code partition}
+ * mode whole weekly partitions are dropped, expired rows in the default
+ * partition are deleted in chunks, and upcoming partitions are created ahead
+ * of time; in {@code delete} mode (or when the table turns out not to be
+ * partitioned) rows are removed in bounded chunks, one transaction per chunk.
+ */
+@Slf4j
 @Service
 @RequiredArgsConstructor(onConstructor = @__(@Autowired))
 public class RefreshTokenSchedule {
 
+  private static final String MODE_PARTITION = "partition";
+
   private final RefreshTokenRepository refreshTokenRepository;
+  private final RefreshTokenPartitionRepository refreshTokenPartitionRepository;
+  private final MeterRegistry meterRegistry;
+
+  @Value("${refresh-token.retention.mode:delete}")
+  private String mode;
+
+  @Value("${refresh-token.retention.weeks:1}")
+  private int retentionWeeks;
+
+  @Value("${refresh-token.retention.partitions-ahead:2}")
+  private int partitionsAhead;
+
+  @Value("${refresh-token.retention.batch-size:5000}")
+  private int batchSize;
+
+  private Counter purgedRows;
+  private Counter purgedPartitions;
+  private Timer purgeDuration;
+
+  @PostConstruct
+  void registerMetrics() {
+    purgedRows = Counter.builder("refresh_token.purged.rows").register(meterRegistry);
+    purgedPartitions = Counter.builder("refresh_token.purged.partitions").register(meterRegistry);
+    purgeDuration = Timer.builder("refresh_token.purge.duration").register(meterRegistry);
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void createUpcomingPartitions() {
+    if (usePartitions()) {
+      ensurePartitions(currentWeek());
+    }
+  }
 
-  @Scheduled(cron = "0 0 0 * * 0") // Setiap hari Minggu pukul 00:00 (midnight)
+  @Scheduled(cron = "${refresh-token.retention.cron:0 0 0 * * 0}") // Setiap hari Minggu pukul 00:00 (midnight)
   public void deleteExpiredRefreshTokens() {
-    LocalDateTime oneWeekAgo = LocalDateTime.now().minusWeeks(1);
-    Timestamp timestampOneWeekAgo = Timestamp.valueOf(oneWeekAgo);
+    purgeDuration.record(() -> {
+      LocalDateTime cutoff = LocalDateTime.now().minusWeeks(retentionWeeks);
+      if (usePartitions()) {
+        ensurePartitions(currentWeek());
+        dropPartitionsBefore(cutoff.toLocalDate());
+        deleteDefaultPartitionInChunks(Timestamp.valueOf(cutoff));
+      } else {
+        deleteInChunks(Timestamp.valueOf(cutoff));
+      }
+    });
+  }
+
+  private boolean usePartitions() {
+    if (!MODE_PARTITION.equals(mode)) {
+      return false;
+    }
+    if (!refreshTokenPartitionRepository.isPartitioned()) {
+      log.warn("refresh_token is not partitioned, falling back to chunked deletes");
+      return false;
+    }
+    return true;
+  }
+
+  // Creating a week fails while the default partition holds rows in its range
+  // (e.g. after downtime longer than partitions-ahead); that must not stop the purge.
+  private void ensurePartitions(LocalDate week) {
+    for (int i = 0; i <= partitionsAhead; i++) {
+      LocalDate weekStart = week.plusWeeks(i);
+      try {
+        refreshTokenPartitionRepository.createPartition(weekStart);
+      } catch (DataAccessException ex) {
+        log.warn("Could not create refresh token partition for week {}: {}", weekStart,
+            ex.getMostSpecificCause().getMessage());
+      }
+    }
+  }
 
-    refreshTokenRepository.deleteByCreatedOnBefore(timestampOneWeekAgo);
+  // A partition is only dropped once its whole week lies before the cutoff.
+  private void dropPartitionsBefore(LocalDate cutoff) {
+    for (LocalDate week : refreshTokenPartitionRepository.findPartitionWeeks()) {
+      if (week.plusWeeks(1).isAfter(cutoff)) {
+        break;
+      }
+      try {
+        long rows = refreshTokenPartitionRepository.dropPartition(week);
+        purgedPartitions.increment();
+        purgedRows.increment(rows);
+        log.info("Dropped refresh token partition for week {} (~{} rows)", week, rows);
+      } catch (DataAccessException ex) {
+        log.error("Could not drop refresh token partition for week {}: {}", week,
+            ex.getMostSpecificCause().getMessage());
+      }
+    }
   }
 
+  private void deleteDefaultPartitionInChunks(Timestamp cutoff) {
+    long total = 0;
+    int deleted;
+    try {
+      do {
+        deleted = refreshTokenPartitionRepository.deleteDefaultChunkCreatedBefore(cutoff, batchSize);
+        total += deleted;
+        purgedRows.increment(deleted);
+      } while (deleted == batchSize);
+    } catch (DataAccessException ex) {
+      log.error("Purging the default refresh token partition failed: {}", ex.getMostSpecificCause().getMessage());
+    }
+    if (total > 0) {
+      log.info("Deleted {} refresh tokens created before {} from the default partition", total, cutoff);
+    }
+  }
+
+  private void deleteInChunks(Timestamp cutoff) {
+    long total = 0;
+    int deleted;
+    do {
+      deleted = refreshTokenRepository.deleteChunkCreatedBefore(cutoff, batchSize);
+      total += deleted;
+      purgedRows.increment(deleted);
+    } while (deleted == batchSize);
+    log.info("Deleted {} refresh tokens created before {}", total, cutoff);
+  }
+
+  private LocalDate currentWeek() {
+    return LocalDate.now().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+  }
 }
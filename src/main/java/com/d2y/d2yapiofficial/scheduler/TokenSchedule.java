@@ -2,46 +2,79 @@ package com.d2y.d2yapiofficial.scheduler;
 
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.function.LongFunction;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import com.d2y.d2yapiofficial.models.Token;
 import com.d2y.d2yapiofficial.repositories.TokenRepository;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Verification token sweeps. Both walk {@code token_id} with a keyset cursor
+ * and touch at most {@code token.sweep.batch-size} rows per statement, each
+ * chunk in its own transaction, so neither ever loads tokens into memory.
+ */
+@Slf4j
 @Service
 @RequiredArgsConstructor(onConstructor = @__(@Autowired))
 public class TokenSchedule {
 
-  private TokenRepository tokenRepository;
+  private static final String EXPIRE = "expire";
+  private static final String DELETE = "delete";
 
-  @Scheduled(cron = "0 0 0 * * ?") // Setiap hari pada pukul 12 malam
-  public void checkAndSetTokenExpired() {
-    LocalDateTime now = LocalDateTime.now();
-    Timestamp currentTimestamp = Timestamp.valueOf(now);
+  private final TokenRepository tokenRepository;
+  private final MeterRegistry meterRegistry;
 
-    List<Token> tokens = tokenRepository.findByExpiryDateBeforeAndExpiredIsFalse(currentTimestamp);
+  @Value("${token.sweep.batch-size:1000}")
+  private int batchSize;
 
-    for (Token token : tokens) {
-      LocalDateTime expiryDateTime = token.getExpiryDate().toLocalDateTime();
-      if (now.isAfter(expiryDateTime.plusHours(24))) {
-        token.setExpired(true);
-        tokenRepository.save(token);
-      }
-    }
+  @Scheduled(cron = "0 0 0 * * ?") // Setiap hari pada pukul 12 malam
+  public void checkAndSetTokenExpired() {
+    // Tokens are marked expired 24 hours after their expiry date.
+    Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusHours(24));
+    sweep(EXPIRE,
+        afterId -> tokenRepository.findExpirableChunkEnd(afterId, cutoff, batchSize),
+        (afterId, upToId) -> tokenRepository.expireRange(afterId, upToId, cutoff));
   }
 
   @Scheduled(cron = "0 0 6 * * SUN") // Setiap hari Minggu jam 6 pagi
   public void deleteExpiredTokens() {
-    List<Token> expiredTokens = tokenRepository.findByExpiredIsTrue();
+    sweep(DELETE,
+        afterId -> tokenRepository.findExpiredChunkEnd(afterId, batchSize),
+        tokenRepository::deleteExpiredRange);
+  }
+
+  private void sweep(String operation, LongFunction<Long> nextChunkEnd, RangeStatement statement) {
+    Timer.Sample sample = Timer.start(meterRegistry);
+    long rows = 0;
+    int chunks = 0;
 
-    for (Token token : expiredTokens) {
-      tokenRepository.delete(token);
+    long afterId = 0;
+    Long upToId;
+    while ((upToId = nextChunkEnd.apply(afterId)) != null) {
+      rows += statement.execute(afterId, upToId);
+      chunks++;
+      afterId = upToId;
     }
+
+    sample.stop(meterRegistry.timer("token.sweep.duration", "operation", operation));
+    Counter.builder("token.sweep.rows").tag("operation", operation).register(meterRegistry).increment(rows);
+    DistributionSummary.builder("token.sweep.chunks").tag("operation", operation).register(meterRegistry)
+        .record(chunks);
+    log.info("Token sweep '{}' touched {} rows in {} chunks", operation, rows, chunks);
   }
 
+  @FunctionalInterface
+  private interface RangeStatement {
+    int execute(long afterId, long upToId);
+  }
 }
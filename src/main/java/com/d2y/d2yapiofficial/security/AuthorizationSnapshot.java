@@ -0,0 +1,58 @@
+package com.d2y.d2yapiofficial.security;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import com.d2y.d2yapiofficial.dto.privilege.PrivilegeDTO;
+import com.d2y.d2yapiofficial.dto.role.RoleDTO;
+
+import lombok.Getter;
+
+/**
+ * Immutable view of the active roles and effective privileges of one user,
+ * keyed by category code id and kept in insertion order.
+ */
+@Getter
+public class AuthorizationSnapshot {
+
+  private final Long userId;
+  private final Map<Long, String> roles;
+  private final Map<Long, String> privileges;
+  private final long loadedAt;
+
+  public AuthorizationSnapshot(Long userId, Map<Long, String> roles, Map<Long, String> privileges) {
+    this.userId = userId;
+    this.roles = Collections.unmodifiableMap(new LinkedHashMap<>(roles));
+    this.privileges = Collections.unmodifiableMap(new LinkedHashMap<>(privileges));
+    this.loadedAt = System.currentTimeMillis();
+  }
+
+  public boolean hasRole(Long roleId) {
+    return roles.containsKey(roleId);
+  }
+
+  public boolean isExpired(long now, long ttlMillis) {
+    return now - loadedAt > ttlMillis;
+  }
+
+  public List<RoleDTO> toRoleDTOs() {
+    return roles.entrySet().stream()
+        .map(role -> RoleDTO.builder()
+            .roleId(role.getKey())
+            .roleName(role.getValue())
+            .build())
+        .collect(Collectors.toList());
+  }
+
+  public List<PrivilegeDTO> toPrivilegeDTOs() {
+    return privileges.entrySet().stream()
+        .map(privilege -> PrivilegeDTO.builder()
+            .privilegeId(privilege.getKey())
+            .privilegeName(privilege.getValue())
+            .build())
+        .collect(Collectors.toList());
+  }
+}
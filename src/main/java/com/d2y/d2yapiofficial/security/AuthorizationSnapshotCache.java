@@ -0,0 +1,156 @@
+package com.d2y.d2yapiofficial.security;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.d2y.d2yapiofficial.dto.privilege.EffectivePrivilegeDTO;
+import com.d2y.d2yapiofficial.repositories.UserRoleRepository;
+import com.d2y.d2yapiofficial.services.CacheInvalidationBus;
+import com.d2y.d2yapiofficial.utils.TransactionUtil;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Per-user cache of {@link AuthorizationSnapshot}s shared by token issuing and
+ * the login response. Entries are evicted after the writing transaction
+ * commits, locally and on the other nodes through the
+ * {@link CacheInvalidationBus}; a generation counter keeps a load that raced
+ * with a write from re-populating the cache with stale data. While the bus is
+ * unavailable entries only live for {@code authorization.cache.fallback-ttl}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class AuthorizationSnapshotCache {
+
+  private static final String CACHE_NAME = "authorizationSnapshot";
+  private static final String USER_KEY = "user:";
+  private static final String ROLE_KEY = "role:";
+
+  private final UserRoleRepository userRoleRepository;
+  private final MeterRegistry meterRegistry;
+  private final CacheInvalidationBus cacheInvalidationBus;
+
+  private final ConcurrentMap<Long, AuthorizationSnapshot> snapshots = new ConcurrentHashMap<>();
+  private final AtomicLong generation = new AtomicLong();
+
+  @Value("${authorization.cache.max-size:10000}")
+  private int maxSize;
+
+  @Value("${authorization.cache.ttl:600000}")
+  private long ttlMillis;
+
+  @Value("${authorization.cache.fallback-ttl:15000}")
+  private long fallbackTtlMillis;
+
+  private Counter hits;
+  private Counter misses;
+  private Counter evictions;
+
+  @PostConstruct
+  void registerMetrics() {
+    hits = Counter.builder("cache.gets").tag("cache", CACHE_NAME).tag("result", "hit").register(meterRegistry);
+    misses = Counter.builder("cache.gets").tag("cache", CACHE_NAME).tag("result", "miss").register(meterRegistry);
+    evictions = Counter.builder("cache.evictions").tag("cache", CACHE_NAME).register(meterRegistry);
+    Gauge.builder("cache.size", snapshots, Map::size).tag("cache", CACHE_NAME).register(meterRegistry);
+    cacheInvalidationBus.register(CACHE_NAME, this::onRemoteInvalidation);
+  }
+
+  public AuthorizationSnapshot get(Long userId) {
+    AuthorizationSnapshot snapshot = snapshots.get(userId);
+    if (snapshot != null) {
+      long ttl = cacheInvalidationBus.isAvailable() ? ttlMillis : fallbackTtlMillis;
+      if (!snapshot.isExpired(System.currentTimeMillis(), ttl)) {
+        hits.increment();
+        return snapshot;
+      }
+      evict(userId);
+    }
+    misses.increment();
+
+    long loadGeneration = generation.get();
+    AuthorizationSnapshot loaded = load(userId);
+    if (generation.get() == loadGeneration) {
+      snapshots.put(userId, loaded);
+      trimToSize();
+    }
+    return loaded;
+  }
+
+  public void evictUser(Long userId) {
+    TransactionUtil.afterCommit(() -> {
+      evictUserNow(userId);
+      cacheInvalidationBus.publish(CACHE_NAME, USER_KEY + userId);
+    });
+  }
+
+  public void evictRole(Long roleId) {
+    TransactionUtil.afterCommit(() -> {
+      evictRoleNow(roleId);
+      cacheInvalidationBus.publish(CACHE_NAME, ROLE_KEY + roleId);
+    });
+  }
+
+  private void onRemoteInvalidation(String key) {
+    if (key.startsWith(USER_KEY)) {
+      evictUserNow(Long.valueOf(key.substring(USER_KEY.length())));
+    } else if (key.startsWith(ROLE_KEY)) {
+      evictRoleNow(Long.valueOf(key.substring(ROLE_KEY.length())));
+    }
+  }
+
+  private void evictUserNow(Long userId) {
+    generation.incrementAndGet();
+    evict(userId);
+  }
+
+  private void evictRoleNow(Long roleId) {
+    generation.incrementAndGet();
+    snapshots.values().stream()
+        .filter(snapshot -> snapshot.hasRole(roleId))
+        .map(AuthorizationSnapshot::getUserId)
+        .forEach(this::evict);
+  }
+
+  private void evict(Long userId) {
+    if (snapshots.remove(userId) != null) {
+      evictions.increment();
+    }
+  }
+
+  private void trimToSize() {
+    Iterator<Long> keys = snapshots.keySet().iterator();
+    while (snapshots.size() > maxSize && keys.hasNext()) {
+      keys.next();
+      keys.remove();
+      evictions.increment();
+    }
+  }
+
+  private AuthorizationSnapshot load(Long userId) {
+    Map<Long, String> roles = new LinkedHashMap<>();
+    Map<Long, String> privileges = new LinkedHashMap<>();
+    for (EffectivePrivilegeDTO row : userRoleRepository.findEffectivePrivileges(userId)) {
+      roles.putIfAbsent(row.getRoleId(), row.getRoleName());
+      if (row.getPrivilegeId() != null) {
+        privileges.putIfAbsent(row.getPrivilegeId(), row.getPrivilegeName());
+      }
+    }
+    log.debug("Loaded authorization snapshot for user {}", userId);
+    return new AuthorizationSnapshot(userId, roles, privileges);
+  }
+}
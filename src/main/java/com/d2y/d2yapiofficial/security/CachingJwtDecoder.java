@@ -0,0 +1,62 @@
+package com.d2y.d2yapiofficial.security;
+
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import com.d2y.d2yapiofficial.utils.HashUtil;
+
+/**
+ * Remembers tokens that already passed signature and claim validation, keyed
+ * by the SHA-256 of the raw token. An entry is only served until the token's
+ * {@code exp}; after that the delegate decides again, so the cache never
+ * extends the life of a token. Tokens without {@code exp} are not cached.
+ */
+public class CachingJwtDecoder implements JwtDecoder {
+
+  private final JwtDecoder delegate;
+  private final int maxEntries;
+  private final ConcurrentMap<String, Jwt> verified = new ConcurrentHashMap<>();
+
+  public CachingJwtDecoder(JwtDecoder delegate, int maxEntries) {
+    this.delegate = delegate;
+    this.maxEntries = maxEntries;
+  }
+
+  @Override
+  public Jwt decode(String token) throws JwtException {
+    String key = HashUtil.sha256Hex(token);
+    Instant now = Instant.now();
+
+    Jwt cached = verified.get(key);
+    if (cached != null) {
+      if (now.isBefore(cached.getExpiresAt())) {
+        return cached;
+      }
+      verified.remove(key, cached);
+    }
+
+    Jwt jwt = delegate.decode(token);
+    if (jwt.getExpiresAt() != null && now.isBefore(jwt.getExpiresAt())) {
+      if (verified.size() >= maxEntries) {
+        shrink(now);
+      }
+      verified.put(key, jwt);
+    }
+    return jwt;
+  }
+
+  private void shrink(Instant now) {
+    verified.values().removeIf(jwt -> !now.isBefore(jwt.getExpiresAt()));
+    Iterator<String> keys = verified.keySet().iterator();
+    while (verified.size() >= maxEntries && keys.hasNext()) {
+      keys.next();
+      keys.remove();
+    }
+  }
+}
@@ -0,0 +1,120 @@
+package com.d2y.d2yapiofficial.security;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.PermissionEvaluator;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Component;
+
+import com.d2y.d2yapiofficial.models.User;
+import com.d2y.d2yapiofficial.services.CategoryCodeCache;
+import com.d2y.d2yapiofficial.utils.constants.CategoryCodeConstant;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Backs {@code hasPermission(...)} in method security expressions. The
+ * decision is taken from the {@code roles} claim signed into the caller's
+ * access token by {@link JwtProvider}; only when that claim is missing (a
+ * token issued without it) are the roles of the authenticated caller read
+ * from the {@link AuthorizationSnapshotCache}. The target object is never
+ * used to pick whose roles are checked, and a request without a bearer token
+ * is always denied.
+ *
+ * <p>
+ * Supported permission: {@value #ACCESS_MANAGEMENT}, granted to the
+ * Administrator role, matched by its {@code category_code} id.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class ClaimPermissionEvaluator implements PermissionEvaluator {
+
+  public static final String ACCESS_MANAGEMENT = "ACCESS_MANAGEMENT";
+
+  private static final String ROLES_CLAIM = "roles";
+  private static final String ROLE_ID = "roleId";
+
+  private final AuthorizationSnapshotCache authorizationSnapshotCache;
+  private final IdentityContext identityContext;
+  private final MeterRegistry meterRegistry;
+  private final CategoryCodeCache categoryCodeCache;
+
+  private Counter claimDecisions;
+  private Counter databaseDecisions;
+
+  @PostConstruct
+  void registerMetrics() {
+    claimDecisions = Counter.builder("authorization.decisions").tag("source", "claim").register(meterRegistry);
+    databaseDecisions = Counter.builder("authorization.decisions").tag("source", "database").register(meterRegistry);
+  }
+
+  @Override
+  public boolean hasPermission(Authentication authentication, Object targetDomainObject, Object permission) {
+    if (!ACCESS_MANAGEMENT.equals(permission)) {
+      return false;
+    }
+
+    Optional<Long> administratorId = categoryCodeCache.findId(CategoryCodeConstant.CATEGORY_ROLE,
+        CategoryCodeConstant.ROLE_ADMINISTRATOR);
+    if (administratorId.isEmpty()) {
+      log.warn("No {} role in category_code, denying {}", CategoryCodeConstant.ROLE_ADMINISTRATOR, permission);
+      return false;
+    }
+
+    // Role ids, not names: a renamed or look-alike role name grants nothing.
+    Optional<Collection<?>> roles = getRolesClaim(authentication);
+    if (roles.isPresent()) {
+      claimDecisions.increment();
+      return roles.get().stream()
+          .filter(Map.class::isInstance)
+          .map(role -> ((Map<?, ?>) role).get(ROLE_ID))
+          .filter(Number.class::isInstance)
+          .anyMatch(roleId -> ((Number) roleId).longValue() == administratorId.get());
+    }
+
+    Long userId = getCallerEmail(authentication)
+        .flatMap(identityContext::getUserByEmail)
+        .map(User::getUserId)
+        .orElse(null);
+    if (userId == null) {
+      log.debug("No authenticated caller, denying {}", permission);
+      return false;
+    }
+
+    databaseDecisions.increment();
+    return authorizationSnapshotCache.get(userId).getRoles().containsKey(administratorId.get());
+  }
+
+  @Override
+  public boolean hasPermission(Authentication authentication, Serializable targetId, String targetType,
+      Object permission) {
+    return hasPermission(authentication, targetId, permission);
+  }
+
+  private Optional<String> getCallerEmail(Authentication authentication) {
+    if (authentication == null || !authentication.isAuthenticated()
+        || !(authentication.getPrincipal() instanceof Jwt)) {
+      return Optional.empty();
+    }
+    return Optional.ofNullable(((Jwt) authentication.getPrincipal()).getSubject());
+  }
+
+  private Optional<Collection<?>> getRolesClaim(Authentication authentication) {
+    if (authentication == null || !(authentication.getPrincipal() instanceof Jwt)) {
+      return Optional.empty();
+    }
+    Object roles = ((Jwt) authentication.getPrincipal()).getClaim(ROLES_CLAIM);
+    return roles instanceof Collection ? Optional.of((Collection<?>) roles) : Optional.empty();
+  }
+}
@@ -0,0 +1,40 @@
+package com.d2y.d2yapiofficial.security;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Runs the expensive {@link PasswordEncoder} operations of the delegate on the
+ * bounded {@link PasswordHashingExecutor} instead of the calling request
+ * thread.
+ */
+@RequiredArgsConstructor
+public class ExecutorPasswordEncoder implements PasswordEncoder {
+
+  private final PasswordEncoder delegate;
+  private final PasswordHashingExecutor executor;
+
+  @Override
+  public String encode(CharSequence rawPassword) {
+    return executor.execute(() -> delegate.encode(rawPassword));
+  }
+
+  @Override
+  public boolean matches(CharSequence rawPassword, String encodedPassword) {
+    return executor.execute(() -> delegate.matches(rawPassword, encodedPassword));
+  }
+
+  /**
+   * The wrapped encoder, for callers that already hash on a pool of their own
+   * (the bulk user import) and must not compete for the login queue.
+   */
+  public PasswordEncoder getDelegate() {
+    return delegate;
+  }
+
+  @Override
+  public boolean upgradeEncoding(String encodedPassword) {
+    return delegate.upgradeEncoding(encodedPassword);
+  }
+}
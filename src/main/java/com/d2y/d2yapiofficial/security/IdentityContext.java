@@ -0,0 +1,99 @@
+package com.d2y.d2yapiofficial.security;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import com.d2y.d2yapiofficial.models.User;
+import com.d2y.d2yapiofficial.repositories.UserRepository;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Resolves users by email at most once per HTTP request. The resolved rows
+ * are kept in request attributes, so every component taking part in the same
+ * request (login, the authentication manager, token issuing, caller lookups)
+ * shares one {@link User} instance. Outside a request it simply delegates to
+ * the repository.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class IdentityContext {
+
+  private static final String ATTRIBUTE = IdentityContext.class.getName();
+
+  private final UserRepository userRepository;
+  private final MeterRegistry meterRegistry;
+
+  private DistributionSummary loadsPerRequest;
+
+  @PostConstruct
+  void registerMetrics() {
+    loadsPerRequest = DistributionSummary.builder("identity.user.loads")
+        .description("User rows loaded from the database per request")
+        .register(meterRegistry);
+  }
+
+  public Optional<User> getUserByEmail(String email) {
+    RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+    if (attributes == null) {
+      return userRepository.findByEmail(email);
+    }
+
+    Scope scope = getScope(attributes);
+    User user = scope.users.get(email);
+    if (user != null) {
+      return Optional.of(user);
+    }
+
+    scope.loads++;
+    Optional<User> loaded = userRepository.findByEmail(email);
+    loaded.ifPresent(u -> scope.users.put(email, u));
+    return loaded;
+  }
+
+  public Optional<String> getCallerEmail() {
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    if (authentication != null && authentication.getPrincipal() instanceof Jwt) {
+      return Optional.of(((Jwt) authentication.getPrincipal()).getSubject());
+    }
+    return Optional.empty();
+  }
+
+  public Optional<User> getCaller() {
+    return getCallerEmail().flatMap(this::getUserByEmail);
+  }
+
+  private Scope getScope(RequestAttributes attributes) {
+    Scope scope = (Scope) attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+    if (scope == null) {
+      Scope created = new Scope();
+      attributes.setAttribute(ATTRIBUTE, created, RequestAttributes.SCOPE_REQUEST);
+      attributes.registerDestructionCallback(ATTRIBUTE, () -> {
+        loadsPerRequest.record(created.loads);
+        log.debug("Request resolved {} user(s) with {} database load(s)", created.users.size(), created.loads);
+      }, RequestAttributes.SCOPE_REQUEST);
+      scope = created;
+    }
+    return scope;
+  }
+
+  private static class Scope {
+    private final Map<String, User> users = new HashMap<>();
+    private int loads;
+  }
+}
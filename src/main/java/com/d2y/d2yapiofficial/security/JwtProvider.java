@@ -1,10 +1,8 @@
 package com.d2y.d2yapiofficial.security;
 
 import java.time.Instant;
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
@@ -16,12 +14,8 @@ import org.springframework.security.oauth2.jwt.JwtEncoder;
 import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
 import org.springframework.stereotype.Service;
 
-import com.d2y.d2yapiofficial.dto.privilege.PrivilegeDTO;
 import com.d2y.d2yapiofficial.dto.role.RoleDTO;
-import com.d2y.d2yapiofficial.models.RolePrivilege;
 import com.d2y.d2yapiofficial.models.UserRole;
-import com.d2y.d2yapiofficial.repositories.RolePrivilegeRepository;
-import com.d2y.d2yapiofficial.repositories.UserRoleRepository;
 import com.d2y.d2yapiofficial.services.GetService;
 import com.d2y.d2yapiofficial.utils.constants.ConstantMessage;
 
@@ -33,9 +27,8 @@ public class JwtProvider {
 
   private final JwtEncoder jwtEncoder;
   private final JwtDecoder jwtDecoder;
-  private final UserRoleRepository userRoleRepository;
-  private final RolePrivilegeRepository rolePrivilegeRepository;
   private final GetService getService;
+  private final AuthorizationSnapshotCache authorizationSnapshotCache;
 
   @Value("${jwt.secret.key}")
   private String secretKey;
@@ -52,21 +45,19 @@ public class JwtProvider {
   }
 
   public String generateTokenWithUserName(String email) {
-    com.d2y.d2yapiofficial.models.User user = getService.getUserByEmail(email, ConstantMessage.USER_NOT_FOUND);
-    List<UserRole> listRole = userRoleRepository.findByIdAndActiveList(user);
+    return generateToken(getService.getUserByEmail(email, ConstantMessage.USER_NOT_FOUND));
+  }
 
-    List<RoleDTO> roleNames = listRole.stream()
-        .map(this::convertRoleDTO)
-        .collect(Collectors.toList());
-    List<PrivilegeDTO> privilegeNames = convertPrivilegeDTO(listRole);
+  public String generateToken(com.d2y.d2yapiofficial.models.User user) {
+    AuthorizationSnapshot snapshot = authorizationSnapshotCache.get(user.getUserId());
 
     JwtClaimsSet claims = JwtClaimsSet.builder()
         .issuer(jwtIssuer)
         .issuedAt(Instant.now())
         .expiresAt(Instant.now().plusMillis(jwtExpirationInMillis))
-        .subject(email)
-        .claim("roles", roleNames)
-        .claim("privileges", privilegeNames)
+        .subject(user.getEmail())
+        .claim("roles", snapshot.toRoleDTOs())
+        .claim("privileges", snapshot.toPrivilegeDTOs())
         .build();
 
     return this.jwtEncoder.encode(JwtEncoderParameters.from(claims)).getTokenValue();
@@ -114,21 +105,4 @@ public class JwtProvider {
         .roleName(userRole.getRoleId().getCodeName())
         .build();
   }
-
-  private List<PrivilegeDTO> convertPrivilegeDTO(List<UserRole> listUserRole) {
-    List<PrivilegeDTO> listPrivilege = new ArrayList<>();
-    for (UserRole role : listUserRole) {
-      List<RolePrivilege> rolePrivilege = rolePrivilegeRepository.getListRolePrivilege(role.getRoleId());
-      for (RolePrivilege rPrivilege : rolePrivilege) {
-        PrivilegeDTO buildRolePrivilege = PrivilegeDTO.builder()
-            .privilegeId(rPrivilege.getPrivilegeId().getCategoryCodeId())
-            .privilegeName(rPrivilege.getPrivilegeId().getCodeName())
-            .build();
-        if (!listPrivilege.contains(buildRolePrivilege)) {
-          listPrivilege.add(buildRolePrivilege);
-        }
-      }
-    }
-    return listPrivilege;
-  }
-}
\ No newline at end of file
+}
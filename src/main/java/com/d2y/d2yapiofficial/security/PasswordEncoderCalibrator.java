@@ -0,0 +1,42 @@
+package com.d2y.d2yapiofficial.security;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+public class PasswordEncoderCalibrator {
+
+  private static final int SAMPLES = 3;
+
+  private PasswordEncoderCalibrator() {
+  }
+
+  /**
+   * Pick the highest BCrypt strength whose hash time on this machine stays
+   * within the target latency. Every extra strength step doubles the work, so
+   * the time measured at the minimum strength is enough to extrapolate. The
+   * result never drops below {@code minStrength}, which keeps the security
+   * floor independent of the hardware.
+   */
+  public static int calibrateBCryptStrength(long targetMillis, int minStrength, int maxStrength) {
+    BCryptPasswordEncoder probe = new BCryptPasswordEncoder(minStrength);
+    String sample = "calibration-" + System.nanoTime();
+    probe.encode(sample);
+
+    long started = System.nanoTime();
+    for (int i = 0; i < SAMPLES; i++) {
+      probe.encode(sample);
+    }
+    double millis = (System.nanoTime() - started) / (SAMPLES * 1_000_000.0);
+
+    int strength = minStrength;
+    while (strength < maxStrength && millis * 2 <= targetMillis) {
+      millis *= 2;
+      strength++;
+    }
+    log.info("BCrypt strength calibrated to {} (~{} ms per hash, target {} ms)", strength, Math.round(millis),
+        targetMillis);
+    return strength;
+  }
+}
@@ -0,0 +1,109 @@
+package com.d2y.d2yapiofficial.security;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import com.d2y.d2yapiofficial.exceptions.TooManyRequestsException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Dedicated pool for password hashing. It is sized to the available cores and
+ * fronted by a bounded queue, so a burst of logins or registrations can only
+ * occupy a fixed amount of CPU; anything beyond the queue is rejected at once
+ * with {@link TooManyRequestsException} instead of piling up on Tomcat
+ * workers.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class PasswordHashingExecutor {
+
+  private static final String REJECTED_MESSAGE = "Too many sign-in requests right now, please retry shortly.";
+
+  private final MeterRegistry meterRegistry;
+
+  @Value("${security.hashing.threads:0}")
+  private int threads;
+
+  @Value("${security.hashing.queue-capacity:64}")
+  private int queueCapacity;
+
+  @Value("${security.hashing.timeout:10000}")
+  private long timeoutMillis;
+
+  private ThreadPoolExecutor executor;
+  private Timer waitTimer;
+  private Timer hashTimer;
+  private Counter rejected;
+
+  @PostConstruct
+  void start() {
+    int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("password-hashing-"),
+        new ThreadPoolExecutor.AbortPolicy());
+
+    Gauge.builder("password.hashing.queue.depth", executor, e -> e.getQueue().size()).register(meterRegistry);
+    Gauge.builder("password.hashing.active", executor, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+    waitTimer = Timer.builder("password.hashing.wait").register(meterRegistry);
+    hashTimer = Timer.builder("password.hashing.duration").register(meterRegistry);
+    rejected = Counter.builder("password.hashing.rejected").register(meterRegistry);
+    log.info("Password hashing executor started with {} thread(s) and a queue of {}", poolSize, queueCapacity);
+  }
+
+  @PreDestroy
+  void stop() {
+    executor.shutdown();
+  }
+
+  public <T> T execute(Supplier<T> task) {
+    long submittedAt = System.nanoTime();
+    Future<T> future;
+    try {
+      future = executor.submit(() -> {
+        waitTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+        return hashTimer.record(task);
+      });
+    } catch (RejectedExecutionException ex) {
+      rejected.increment();
+      throw new TooManyRequestsException(REJECTED_MESSAGE, ex);
+    }
+
+    try {
+      return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+    } catch (TimeoutException ex) {
+      future.cancel(true);
+      rejected.increment();
+      throw new TooManyRequestsException(REJECTED_MESSAGE, ex);
+    } catch (InterruptedException ex) {
+      future.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for password hashing", ex);
+    } catch (ExecutionException ex) {
+      if (ex.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) ex.getCause();
+      }
+      throw new IllegalStateException(ex.getCause());
+    }
+  }
+}
@@ -1,12 +1,14 @@
 package com.d2y.d2yapiofficial.services;
 
 import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 import javax.persistence.EntityExistsException;
 import javax.persistence.EntityNotFoundException;
@@ -14,31 +16,34 @@ import javax.transaction.Transactional;
 import javax.validation.ValidationException;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
-import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Service;
 
 import com.d2y.d2yapiofficial.dto.auth.AuthResponse;
 import com.d2y.d2yapiofficial.dto.auth.LoginRequest;
 import com.d2y.d2yapiofficial.dto.auth.RefreshTokenRequest;
+import com.d2y.d2yapiofficial.dto.auth.RefreshTokenRotation;
 import com.d2y.d2yapiofficial.dto.auth.RegisterRequest;
-import com.d2y.d2yapiofficial.dto.privilege.PrivilegeDTO;
 import com.d2y.d2yapiofficial.dto.role.RoleDTO;
 import com.d2y.d2yapiofficial.exceptions.ForbiddenException;
 import com.d2y.d2yapiofficial.models.NotificationEmail;
-import com.d2y.d2yapiofficial.models.RolePrivilege;
 import com.d2y.d2yapiofficial.models.Token;
 import com.d2y.d2yapiofficial.models.User;
 import com.d2y.d2yapiofficial.models.UserRole;
-import com.d2y.d2yapiofficial.repositories.RolePrivilegeRepository;
 import com.d2y.d2yapiofficial.repositories.TokenRepository;
 import com.d2y.d2yapiofficial.repositories.UserRepository;
-import com.d2y.d2yapiofficial.repositories.UserRoleRepository;
+import com.d2y.d2yapiofficial.security.AuthorizationSnapshot;
+import com.d2y.d2yapiofficial.security.AuthorizationSnapshotCache;
+import com.d2y.d2yapiofficial.security.IdentityContext;
 import com.d2y.d2yapiofficial.security.JwtProvider;
+import com.d2y.d2yapiofficial.security.VerificationLinkSigner;
+import com.d2y.d2yapiofficial.utils.constants.DomainEventType;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -48,15 +53,26 @@ import lombok.extern.slf4j.Slf4j;
 @RequiredArgsConstructor(onConstructor = @__(@Autowired))
 public class AuthService {
 
-  private final MailService mailService;
+  static final String VERIFICATION_URL = "http://localhost:5000/api/v1/auth/accountVerification/";
+  static final String WEAK_PASSWORD = "Password must contain a combination of uppercase letters, lowercase letters, "
+      + "numbers, and special characters.";
+
+  private final MailOutboxService mailOutboxService;
   private final TokenRepository tokenRepository;
   private final UserRepository userRepository;
-  private final UserRoleRepository userRoleRepository;
-  private final RolePrivilegeRepository rolePrivilegeRepository;
+  private final AuthorizationSnapshotCache authorizationSnapshotCache;
+  private final IdentityContext identityContext;
   private final RefreshTokenService refreshTokenService;
   private final PasswordEncoder passwordEncoder;
   private final AuthenticationManager authenticationManager;
   private final JwtProvider jwtProvider;
+  private final VerificationLinkSigner verificationLinkSigner;
+  private final DomainEventPublisher domainEventPublisher;
+  private final UserSearchIndex userSearchIndex;
+
+  // token: a Token row per registration; signed: a stateless signed link.
+  @Value("${verification.mode:token}")
+  private String verificationMode;
 
   @Transactional
   public void registerUser(RegisterRequest registrationDto) {
@@ -67,6 +83,8 @@ public class AuthService {
       user = userRepository.save(user);
 
       sendVerificationEmail(user);
+      userSearchIndex.put(user);
+      publishRegistered(user);
     } catch (Exception ex) {
       log.info(ex.getMessage());
       ex.printStackTrace();
@@ -78,11 +96,9 @@ public class AuthService {
   public AuthResponse login(LoginRequest loginRequest) {
     try {
       User user = getUserByEmail(loginRequest.getEmail());
-      validateUserEnabled(user, loginRequest);
+      validateUserEnabled(user);
 
-      Authentication authenticate = authenticationManager
-          .authenticate(new UsernamePasswordAuthenticationToken(loginRequest.getEmail(),
-              loginRequest.getPassword()));
+      Authentication authenticate = authenticate(loginRequest);
       SecurityContextHolder.getContext().setAuthentication(authenticate);
 
       user.setLastLogin(new Timestamp(System.currentTimeMillis()));
@@ -96,15 +112,21 @@ public class AuthService {
     }
   }
 
-  @Transactional
+  // A reused refresh token revokes its family before failing; keep that delete.
+  // The access token is for the user the family was issued to, never one named by the client.
+  @Transactional(dontRollbackOn = ValidationException.class)
   public AuthResponse refreshToken(RefreshTokenRequest refreshTokenRequest) {
     try {
-      refreshTokenService.validateRefreshToken(refreshTokenRequest.getRefreshToken());
-      String token = jwtProvider.generateTokenWithUserName(refreshTokenRequest.getEmail());
+      RefreshTokenRotation rotation = refreshTokenService.rotateRefreshToken(refreshTokenRequest.getRefreshToken());
+      User user = userRepository.findByIdAndActive(rotation.getUserId())
+          .orElseThrow(() -> new ValidationException("Invalid Refresh Token"));
+      String token = jwtProvider.generateToken(user);
 
       return AuthResponse.builder()
+          .userId(user.getUserId())
+          .email(user.getEmail())
           .accessToken(token)
-          .refreshToken(refreshTokenService.generateRefreshToken().getToken())
+          .refreshToken(rotation.getRefreshToken())
           .build();
     } catch (Exception ex) {
       log.info(ex.getMessage());
@@ -125,8 +147,7 @@ public class AuthService {
     }
 
     if (!isStrongPassword(registrationDto.getPassword())) {
-      throw new ValidationException(
-          "Password must contain a combination of uppercase letters, lowercase letters, numbers, and special characters.");
+      throw new ValidationException(WEAK_PASSWORD);
     }
   }
 
@@ -143,20 +164,22 @@ public class AuthService {
     return user;
   }
 
-  private boolean isStrongPassword(String password) {
+  static boolean isStrongPassword(String password) {
     return password.matches("^(?=.*[A-Z])(?=.*[a-z])(?=.*\\d)(?=.*[@#$%!*+=_^&\\-\\[\\]{}\\/?.,><\\\\|]).{8,}$");
   }
 
   private void sendVerificationEmail(User user) {
     NotificationEmail mailMessage = createNotificationEmail(user);
-    mailService.sendMail(mailMessage);
+    mailOutboxService.enqueue(mailMessage);
   }
 
   private NotificationEmail createNotificationEmail(User user) {
     String recipientEmail = user.getEmail();
     String subject = "Welcome " + user.getUsername();
-    String token = generateVerificationToken(user);
-    String verificationUrl = "http://localhost:5000/api/v1/auth/accountVerification/" + token;
+    String token = VerificationLinkSigner.MODE_SIGNED.equals(verificationMode)
+        ? verificationLinkSigner.sign(user.getUserId(), Instant.now().plus(Duration.ofHours(24)))
+        : generateVerificationToken(user);
+    String verificationUrl = VERIFICATION_URL + token;
 
     NotificationEmail notificationEmail = new NotificationEmail();
     notificationEmail.setRecipient(recipientEmail);
@@ -186,24 +209,26 @@ public class AuthService {
   // Function for login
 
   private User getUserByEmail(String email) {
-    return userRepository.findByEmail(email)
+    return identityContext.getUserByEmail(email)
         .orElseThrow(() -> new EntityNotFoundException("User not found"));
   }
 
-  private void validateUserEnabled(User user, LoginRequest loginRequest) {
+  private void validateUserEnabled(User user) {
     if (!user.isEnabled()) {
       throw new ForbiddenException("Please check your email to verify your account.");
     }
+  }
 
-    if (!isPasswordValid(loginRequest.getPassword(), user.getPassword())) {
+  // The authentication manager is the only place the password is verified.
+  private Authentication authenticate(LoginRequest loginRequest) {
+    try {
+      return authenticationManager.authenticate(
+          new UsernamePasswordAuthenticationToken(loginRequest.getEmail(), loginRequest.getPassword()));
+    } catch (BadCredentialsException ex) {
       throw new ValidationException("Invalid email or password.");
     }
   }
 
-  private boolean isPasswordValid(String rawPassword, String hashedPasswordFromDb) {
-    return passwordEncoder.matches(rawPassword, hashedPasswordFromDb);
-  }
-
   public RoleDTO convertRoleDTO(UserRole userRole) {
     return RoleDTO.builder()
         .roleId(userRole.getRoleId().getCategoryCodeId())
@@ -212,41 +237,31 @@ public class AuthService {
 
   }
 
-  private List<PrivilegeDTO> convertPrivilegeDTO(List<UserRole> listUserRole) {
-    List<PrivilegeDTO> listPrivilege = new ArrayList<>();
-    for (UserRole role : listUserRole) {
-      List<RolePrivilege> rolePrivilege = rolePrivilegeRepository.getListRolePrivilege(role.getRoleId());
-      for (RolePrivilege rPrivilege : rolePrivilege) {
-        PrivilegeDTO buildRolePrivilege = PrivilegeDTO.builder()
-            .privilegeId(rPrivilege.getPrivilegeId().getCategoryCodeId())
-            .privilegeName(rPrivilege.getPrivilegeId().getCodeName())
-            .build();
-        if (!listPrivilege.contains(buildRolePrivilege)) {
-          listPrivilege.add(buildRolePrivilege);
-        }
-      }
-    }
-    return listPrivilege;
-  }
-
   private AuthResponse createAuthResponse(User user, Authentication authentication) {
     String token = jwtProvider.generateToken(authentication);
-    List<UserRole> listRole = userRoleRepository.findByIdAndActiveList(user);
+    AuthorizationSnapshot snapshot = authorizationSnapshotCache.get(user.getUserId());
 
     return AuthResponse.builder()
         .userId(user.getUserId())
         .email(user.getEmail())
         .username(user.getUsername())
-        .listRole(listRole.stream().map(this::convertRoleDTO).collect(Collectors.toList()))
-        .listPrivilege(convertPrivilegeDTO(listRole))
+        .listRole(snapshot.toRoleDTOs())
+        .listPrivilege(snapshot.toPrivilegeDTOs())
         .accessToken(token)
-        .refreshToken(refreshTokenService.generateRefreshToken().getToken())
+        .refreshToken(refreshTokenService.generateRefreshToken(user.getUserId()))
         .build();
   }
 
   // Another function
 
+  @Transactional
   public boolean verifyAccount(String token) {
+    if (VerificationLinkSigner.isSigned(token)) {
+      return verificationLinkSigner.verify(token)
+          .map(this::enableUser)
+          .orElse(false);
+    }
+
     Optional<Token> verificationToken = tokenRepository.findByToken(token);
     return fetchUserAndEnable(
         verificationToken.orElseThrow(() -> new ValidationException("Invalid Verification Token")));
@@ -264,13 +279,36 @@ public class AuthService {
     user.setEnabled(true);
     userRepository.save(user);
     tokenRepository.delete(verificationToken);
+    publishVerified(userId);
+    return true;
+  }
+
+  // A link clicked twice updates nothing the second time and publishes nothing.
+  private boolean enableUser(Long userId) {
+    if (userRepository.enableUser(userId) == 1) {
+      publishVerified(userId);
+    } else if (!userRepository.existsById(userId)) {
+      throw new EntityNotFoundException("User not found");
+    }
     return true;
   }
 
+  private void publishRegistered(User user) {
+    Map<String, Object> data = new HashMap<>();
+    data.put("email", user.getEmail());
+    data.put("username", user.getUsername());
+    domainEventPublisher.publish(DomainEventType.USER_REGISTERED, DomainEventType.AGGREGATE_USER, user.getUserId(),
+        data);
+  }
+
+  private void publishVerified(Long userId) {
+    domainEventPublisher.publish(DomainEventType.USER_VERIFIED, DomainEventType.AGGREGATE_USER, userId,
+        Collections.emptyMap());
+  }
+
   @Transactional
   public User getCurrentUser() {
-    Jwt principal = (Jwt) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-    return userRepository.findByEmail(principal.getSubject())
+    return identityContext.getCaller()
         .orElseThrow(() -> new EntityNotFoundException("User Not Found"));
   }
 }
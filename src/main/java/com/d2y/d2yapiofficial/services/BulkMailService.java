@@ -0,0 +1,283 @@
+package com.d2y.d2yapiofficial.services;
+
+import java.io.UnsupportedEncodingException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.mail.MessagingException;
+import javax.mail.Transport;
+import javax.mail.internet.MimeMessage;
+import javax.persistence.EntityNotFoundException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+
+import com.d2y.d2yapiofficial.dto.notification.AnnouncementRequest;
+import com.d2y.d2yapiofficial.dto.notification.BulkMailJobDTO;
+import com.d2y.d2yapiofficial.dto.user.UserContactDTO;
+import com.d2y.d2yapiofficial.repositories.UserRepository;
+import com.d2y.d2yapiofficial.utils.RateLimiter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Sends one announcement to every active, verified user. Recipients are paged
+ * with a keyset cursor into a bounded queue drained by
+ * {@code mail.bulk.sessions} workers. Each worker keeps its own SMTP
+ * {@link Transport} open and sends message after message over it, reconnecting
+ * every {@code mail.bulk.messages-per-connection} messages or after an error.
+ * All workers share one {@link RateLimiter}. Jobs run one at a time; the
+ * template is parsed once by Thymeleaf's template cache. Finished jobs are
+ * forgotten {@code mail.bulk.job-retention} after they end.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class BulkMailService {
+
+  private static final String TEMPLATE = "announcement-email";
+  private static final UserContactDTO END = new UserContactDTO();
+
+  private final JavaMailSenderImpl mailSender;
+  private final TemplateEngine templateEngine;
+  private final UserRepository userRepository;
+  private final MeterRegistry meterRegistry;
+
+  private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+  @Value("${spring.mail.sender}")
+  private String emailSenderAddress;
+
+  @Value("${mail.bulk.sessions:4}")
+  private int sessions;
+
+  @Value("${mail.bulk.messages-per-connection:100}")
+  private int messagesPerConnection;
+
+  @Value("${mail.bulk.rate:20}")
+  private double ratePerSecond;
+
+  @Value("${mail.bulk.page-size:500}")
+  private int pageSize;
+
+  @Value("${mail.bulk.job-retention:86400000}")
+  private long jobRetention;
+
+  private ExecutorService coordinator;
+  private ExecutorService workers;
+  private RateLimiter rateLimiter;
+  private Counter sentCounter;
+  private Counter failedCounter;
+
+  @PostConstruct
+  void init() {
+    coordinator = Executors.newSingleThreadExecutor();
+    workers = Executors.newFixedThreadPool(sessions);
+    rateLimiter = new RateLimiter(ratePerSecond);
+    sentCounter = Counter.builder("mail.bulk.sent").register(meterRegistry);
+    failedCounter = Counter.builder("mail.bulk.failed").register(meterRegistry);
+  }
+
+  @PreDestroy
+  void shutdown() {
+    coordinator.shutdownNow();
+    workers.shutdownNow();
+  }
+
+  @PreAuthorize("hasPermission(null, 'ACCESS_MANAGEMENT')")
+  public BulkMailJobDTO startAnnouncement(AnnouncementRequest request) {
+    evictFinishedJobs();
+    Job job = new Job(UUID.randomUUID().toString(), request);
+    jobs.put(job.id, job);
+    coordinator.submit(() -> run(job));
+    return job.toDTO();
+  }
+
+  @PreAuthorize("hasPermission(null, 'ACCESS_MANAGEMENT')")
+  public BulkMailJobDTO getJob(String jobId) {
+    Job job = jobs.get(jobId);
+    if (job == null) {
+      throw new EntityNotFoundException("Bulk Mail Job Not Found!");
+    }
+    return job.toDTO();
+  }
+
+  private void evictFinishedJobs() {
+    long cutoff = System.currentTimeMillis() - jobRetention;
+    jobs.values().removeIf(job -> job.finishedAt > 0 && job.finishedAt < cutoff);
+  }
+
+  private void run(Job job) {
+    job.start(userRepository.countContacts());
+    BlockingQueue<UserContactDTO> queue = new ArrayBlockingQueue<>(pageSize * 2);
+    List<Future<?>> running = new ArrayList<>();
+    for (int i = 0; i < sessions; i++) {
+      running.add(workers.submit(() -> drain(job, queue)));
+    }
+
+    try {
+      long afterId = 0;
+      List<UserContactDTO> page;
+      do {
+        page = userRepository.findContactsAfter(afterId, PageRequest.of(0, pageSize));
+        for (UserContactDTO contact : page) {
+          queue.put(contact);
+          afterId = contact.getUserId();
+        }
+      } while (page.size() == pageSize);
+
+      for (int i = 0; i < sessions; i++) {
+        queue.put(END);
+      }
+      for (Future<?> worker : running) {
+        worker.get();
+      }
+      job.finish("COMPLETED");
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      running.forEach(worker -> worker.cancel(true));
+      job.finish("CANCELLED");
+    } catch (ExecutionException | RuntimeException ex) {
+      log.error("Bulk mail job {} failed", job.id, ex);
+      running.forEach(worker -> worker.cancel(true));
+      job.finish("FAILED");
+    }
+    log.info("Bulk mail job {} {}: {} sent, {} failed", job.id, job.status, job.sent, job.failed);
+  }
+
+  private void drain(Job job, BlockingQueue<UserContactDTO> queue) {
+    Transport transport = null;
+    int sentOnConnection = 0;
+    try {
+      UserContactDTO contact;
+      while ((contact = queue.take()) != END) {
+        rateLimiter.acquire();
+        try {
+          if (transport == null || sentOnConnection >= messagesPerConnection) {
+            close(transport);
+            transport = connect();
+            sentOnConnection = 0;
+          }
+          MimeMessage message = createMessage(job.subject, job.message, contact);
+          transport.sendMessage(message, message.getAllRecipients());
+          sentOnConnection++;
+          job.sent.incrementAndGet();
+          sentCounter.increment();
+        } catch (MessagingException | UnsupportedEncodingException | RuntimeException ex) {
+          log.warn("Bulk mail to {} failed: {}", contact.getEmail(), ex.getMessage());
+          job.failed.incrementAndGet();
+          failedCounter.increment();
+          close(transport);
+          transport = null;
+        }
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    } finally {
+      close(transport);
+    }
+  }
+
+  private Transport connect() throws MessagingException {
+    Transport transport = mailSender.getSession().getTransport();
+    transport.connect(mailSender.getHost(), mailSender.getPort(), mailSender.getUsername(),
+        mailSender.getPassword());
+    return transport;
+  }
+
+  private void close(Transport transport) {
+    if (transport == null) {
+      return;
+    }
+    try {
+      transport.close();
+    } catch (MessagingException ex) {
+      log.debug("Closing SMTP transport failed: {}", ex.getMessage());
+    }
+  }
+
+  private MimeMessage createMessage(String subject, String body, UserContactDTO contact)
+      throws MessagingException, UnsupportedEncodingException {
+    Context context = new Context();
+    context.setVariable("subject", subject);
+    context.setVariable("username", contact.getUsername());
+    context.setVariable("message", body);
+
+    MimeMessage mimeMessage = mailSender.createMimeMessage();
+    MimeMessageHelper messageHelper = new MimeMessageHelper(mimeMessage, "UTF-8");
+    messageHelper.setFrom(emailSenderAddress, "D2Y OFFICIAL");
+    messageHelper.setTo(contact.getEmail());
+    messageHelper.setSubject(subject);
+    messageHelper.setText(templateEngine.process(TEMPLATE, context), true);
+    mimeMessage.saveChanges();
+    return mimeMessage;
+  }
+
+  private static class Job {
+    private final String id;
+    private final String subject;
+    private final String message;
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private volatile String status = "QUEUED";
+    private volatile long total;
+    private volatile long startedAt;
+    private volatile long finishedAt;
+
+    Job(String id, AnnouncementRequest request) {
+      this.id = id;
+      this.subject = request.getSubject();
+      this.message = request.getMessage();
+    }
+
+    void start(long total) {
+      this.total = total;
+      this.startedAt = System.currentTimeMillis();
+      this.status = "RUNNING";
+    }
+
+    void finish(String status) {
+      this.finishedAt = System.currentTimeMillis();
+      this.status = status;
+    }
+
+    BulkMailJobDTO toDTO() {
+      long end = finishedAt > 0 ? finishedAt : System.currentTimeMillis();
+      double seconds = startedAt > 0 ? Math.max(1, end - startedAt) / 1000.0 : 0;
+      return BulkMailJobDTO.builder()
+          .jobId(id)
+          .subject(subject)
+          .status(status)
+          .total(total)
+          .sent(sent.get())
+          .failed(failed.get())
+          .messagesPerSecond(seconds > 0 ? sent.get() / seconds : 0)
+          .startedOn(startedAt > 0 ? new Timestamp(startedAt) : null)
+          .finishedOn(finishedAt > 0 ? new Timestamp(finishedAt) : null)
+          .build();
+    }
+  }
+}
@@ -0,0 +1,229 @@
+package com.d2y.d2yapiofficial.services;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.concurrent.ListenableFuture;
+
+import com.d2y.d2yapiofficial.dto.event.InvalidationMessage;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Broadcasts cache keys to invalidate to every node. Keys published within one
+ * flush interval are coalesced into a single Kafka record; each node consumes
+ * the topic in its own consumer group, so every node sees every record at
+ * least once. Invalidation is idempotent, so redelivery is harmless.
+ *
+ * <p>
+ * Caches register a handler per cache name and ask {@link #isAvailable()}
+ * before trusting long-lived entries: when the bus is enabled but cannot
+ * publish or consume, they should fall back to a short TTL. With
+ * {@code cache.invalidation.enabled=false} the node is assumed to be alone.
+ *
+ * <p>
+ * Queued keys live in memory only. The bus counts as unavailable while a key
+ * has waited more than two flush intervals without Kafka acknowledging it, and
+ * a graceful shutdown sends the backlog synchronously. Keys still queued when
+ * the process crashes are lost: other nodes then serve the stale entry until
+ * it expires, so the TTL of the cache is the only bound in that case.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class CacheInvalidationBus {
+
+  public static final String LISTENER_ID = "cacheInvalidation";
+
+  private final ObjectProvider<KafkaTemplate<String, String>> kafkaTemplate;
+  private final ObjectProvider<KafkaListenerEndpointRegistry> listenerRegistry;
+  private final ObjectMapper objectMapper;
+  private final MeterRegistry meterRegistry;
+
+  @Getter
+  private final String nodeId = UUID.randomUUID().toString();
+  private final Map<String, Consumer<String>> handlers = new ConcurrentHashMap<>();
+  // Queued keys and in-flight batches, each with the time its oldest key was queued.
+  private final Map<String, Long> pending = new ConcurrentHashMap<>();
+  private final Map<Object, Long> inFlight = new ConcurrentHashMap<>();
+
+  @Value("${cache.invalidation.enabled:false}")
+  private boolean enabled;
+
+  @Value("${cache.invalidation.topic:d2y.cache-invalidation}")
+  private String topic;
+
+  @Value("${cache.invalidation.unavailable-after:30000}")
+  private long unavailableAfterMillis;
+
+  @Value("${cache.invalidation.flush-interval:100}")
+  private long flushIntervalMillis;
+
+  @Value("${cache.invalidation.shutdown-timeout:5000}")
+  private long shutdownTimeoutMillis;
+
+  private volatile long lastFailureAt;
+
+  private Timer lag;
+  private Counter received;
+  private Counter published;
+
+  @PostConstruct
+  void registerMetrics() {
+    lag = Timer.builder("cache.invalidation.lag")
+        .description("Time from publishing an invalidation to applying it on another node")
+        .register(meterRegistry);
+    received = Counter.builder("cache.invalidation.keys").tag("direction", "received").register(meterRegistry);
+    published = Counter.builder("cache.invalidation.keys").tag("direction", "published").register(meterRegistry);
+  }
+
+  public void register(String cache, Consumer<String> handler) {
+    handlers.put(cache, handler);
+  }
+
+  /**
+   * Queues a key for the other nodes. Callers invalidate their own copy
+   * themselves, after commit.
+   */
+  public void publish(String cache, String key) {
+    if (enabled) {
+      pending.putIfAbsent(cache + ":" + key, System.currentTimeMillis());
+    }
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public boolean isAvailable() {
+    if (!enabled) {
+      return true;
+    }
+    if (System.currentTimeMillis() - lastFailureAt < unavailableAfterMillis) {
+      return false;
+    }
+    if (backlogAge() > 2 * flushIntervalMillis) {
+      return false;
+    }
+    KafkaListenerEndpointRegistry registry = listenerRegistry.getIfAvailable();
+    MessageListenerContainer container = registry == null ? null : registry.getListenerContainer(LISTENER_ID);
+    return container != null && container.isRunning();
+  }
+
+  @Scheduled(fixedDelayString = "${cache.invalidation.flush-interval:100}")
+  public void flush() {
+    send(false);
+  }
+
+  // Runs before any bean is destroyed, so the producer is still usable.
+  @EventListener(ContextClosedEvent.class)
+  public void flushOnShutdown() {
+    send(true);
+  }
+
+  private synchronized void send(boolean wait) {
+    if (!enabled || pending.isEmpty()) {
+      return;
+    }
+
+    Map<String, Long> keys = new HashMap<>();
+    for (Map.Entry<String, Long> entry : pending.entrySet()) {
+      if (pending.remove(entry.getKey(), entry.getValue())) {
+        keys.put(entry.getKey(), entry.getValue());
+      }
+    }
+    if (keys.isEmpty()) {
+      return;
+    }
+    Object batch = new Object();
+    inFlight.put(batch, Collections.min(keys.values()));
+
+    try {
+      String payload = objectMapper.writeValueAsString(InvalidationMessage.builder()
+          .origin(nodeId)
+          .sentAt(System.currentTimeMillis())
+          .keys(keys.keySet())
+          .build());
+      ListenableFuture<SendResult<String, String>> future = kafkaTemplate.getObject().send(topic, payload);
+      future.addCallback(
+          result -> {
+            inFlight.remove(batch);
+            published.increment(keys.size());
+          },
+          ex -> requeue(batch, keys, ex));
+      if (wait) {
+        future.get(shutdownTimeoutMillis, TimeUnit.MILLISECONDS);
+      }
+    } catch (JsonProcessingException | RuntimeException ex) {
+      requeue(batch, keys, ex);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      log.warn("Interrupted while publishing {} cache invalidation(s) on shutdown", keys.size());
+    } catch (ExecutionException | TimeoutException ex) {
+      log.warn("{} cache invalidation(s) not published before shutdown: {}", keys.size(), ex.getMessage());
+    }
+  }
+
+  private void requeue(Object batch, Map<String, Long> keys, Throwable ex) {
+    lastFailureAt = System.currentTimeMillis();
+    inFlight.remove(batch);
+    keys.forEach((key, queuedAt) -> pending.merge(key, queuedAt, Math::min));
+    log.warn("Publishing {} cache invalidation(s) failed: {}", keys.size(), ex.getMessage());
+  }
+
+  // Age of the oldest key Kafka has not acknowledged yet, 0 when there is none.
+  private long backlogAge() {
+    long oldest = Long.MAX_VALUE;
+    for (Long queuedAt : pending.values()) {
+      oldest = Math.min(oldest, queuedAt);
+    }
+    for (Long queuedAt : inFlight.values()) {
+      oldest = Math.min(oldest, queuedAt);
+    }
+    return oldest == Long.MAX_VALUE ? 0 : System.currentTimeMillis() - oldest;
+  }
+
+  public void receive(String payload) throws JsonProcessingException {
+    InvalidationMessage message = objectMapper.readValue(payload, InvalidationMessage.class);
+    if (nodeId.equals(message.getOrigin())) {
+      return;
+    }
+
+    lag.record(Math.max(0, System.currentTimeMillis() - message.getSentAt()), TimeUnit.MILLISECONDS);
+    for (String entry : message.getKeys()) {
+      int separator = entry.indexOf(':');
+      Consumer<String> handler = separator > 0 ? handlers.get(entry.substring(0, separator)) : null;
+      if (handler != null) {
+        handler.accept(entry.substring(separator + 1));
+        received.increment();
+      }
+    }
+  }
+}
@@ -0,0 +1,36 @@
+package com.d2y.d2yapiofficial.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Every node joins its own consumer group so that each one receives every
+ * invalidation; a node only needs records published after it started.
+ */
+@Component
+@ConditionalOnProperty(name = "cache.invalidation.enabled", havingValue = "true")
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class CacheInvalidationListener {
+
+  private final CacheInvalidationBus cacheInvalidationBus;
+
+  public String getGroupId() {
+    return "cache-invalidation-" + cacheInvalidationBus.getNodeId();
+  }
+
+  @KafkaListener(id = CacheInvalidationBus.LISTENER_ID, topics = "${cache.invalidation.topic:d2y.cache-invalidation}",
+      groupId = "#{__listener.groupId}", properties = {
+          "auto.offset.reset=latest",
+          "key.deserializer=org.apache.kafka.common.serialization.StringDeserializer",
+          "value.deserializer=org.apache.kafka.common.serialization.StringDeserializer"
+      })
+  public void onMessage(String payload) throws JsonProcessingException {
+    cacheInvalidationBus.receive(payload);
+  }
+}
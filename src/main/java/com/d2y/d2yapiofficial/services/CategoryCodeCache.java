@@ -0,0 +1,176 @@
+package com.d2y.d2yapiofficial.services;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityNotFoundException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.d2y.d2yapiofficial.models.CategoryCode;
+import com.d2y.d2yapiofficial.ol.dto.CategoryCodeDTO;
+import com.d2y.d2yapiofficial.repositories.CategoryCodeRepository;
+import com.d2y.d2yapiofficial.utils.HashUtil;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Immutable in-memory snapshot of {@code category_code}: roles, privileges and
+ * the other reference data. A refresh builds a complete new snapshot and swaps
+ * it in with a single write, so readers never see a half-built one. The
+ * version is a digest of the content, so every node holding the same rows
+ * reports the same version (and ETag).
+ *
+ * <p>
+ * Nothing in the application writes {@code category_code}; rows are
+ * maintained in the database. The scheduled reload
+ * ({@code category-code.snapshot.refresh-interval}) is therefore the refresh,
+ * plus an immediate reload when an id is missing from the snapshot but present
+ * in the database. Renames and removals show up within one interval.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class CategoryCodeCache {
+
+  private static final String CACHE_NAME = "categoryCode";
+
+  private final CategoryCodeRepository categoryCodeRepository;
+  private final MeterRegistry meterRegistry;
+
+  private volatile Snapshot snapshot;
+
+  @PostConstruct
+  void init() {
+    Gauge.builder("cache.size", this, cache -> cache.current().byId.size())
+        .tag("cache", CACHE_NAME)
+        .register(meterRegistry);
+  }
+
+  public String getVersion() {
+    return current().version;
+  }
+
+  public Optional<CategoryCodeDTO> find(Long id) {
+    Code code = current().byId.get(id);
+    if (code == null && id != null && categoryCodeRepository.existsById(id)) {
+      code = refresh().byId.get(id);
+    }
+    return Optional.ofNullable(code).map(Code::toDTO);
+  }
+
+  public CategoryCodeDTO get(Long id, String message) {
+    return find(id).orElseThrow(() -> new EntityNotFoundException(message));
+  }
+
+  /**
+   * Checks the id against the snapshot and returns an uninitialized reference
+   * for use in associations and query parameters, without a select.
+   */
+  public CategoryCode reference(Long id, String message) {
+    get(id, message);
+    return categoryCodeRepository.getReferenceById(id);
+  }
+
+  public String nameOf(Long id) {
+    return find(id).map(CategoryCodeDTO::getName).orElse(null);
+  }
+
+  // Both names are matched case-insensitively.
+  public Optional<Long> findId(String categoryName, String codeName) {
+    return Optional.ofNullable(current().idByName.get(nameKey(categoryName, codeName)));
+  }
+
+  public List<CategoryCodeDTO> list(String categoryName) {
+    return current().byCategory.getOrDefault(categoryName.toLowerCase(Locale.ROOT), Collections.emptyList()).stream()
+        .map(Code::toDTO)
+        .collect(Collectors.toList());
+  }
+
+  @Scheduled(fixedDelayString = "${category-code.snapshot.refresh-interval:300000}",
+      initialDelayString = "${category-code.snapshot.refresh-interval:300000}")
+  public void scheduledRefresh() {
+    refresh();
+  }
+
+  private Snapshot current() {
+    Snapshot current = snapshot;
+    return current != null ? current : refresh();
+  }
+
+  private synchronized Snapshot refresh() {
+    Snapshot loaded = new Snapshot(categoryCodeRepository.findAll());
+    Snapshot previous = snapshot;
+    if (previous == null || !previous.version.equals(loaded.version)) {
+      snapshot = loaded;
+      log.info("Loaded category code snapshot {} with {} codes", loaded.version, loaded.byId.size());
+    }
+    return snapshot;
+  }
+
+  private static String nameKey(String categoryName, String codeName) {
+    return (categoryName == null ? "" : categoryName.toLowerCase(Locale.ROOT)) + "\n"
+        + (codeName == null ? "" : codeName.toLowerCase(Locale.ROOT));
+  }
+
+  private static final class Code {
+    private final Long id;
+    private final String categoryName;
+    private final String codeName;
+
+    private Code(CategoryCode categoryCode) {
+      this.id = categoryCode.getCategoryCodeId();
+      this.categoryName = categoryCode.getCategoryName();
+      this.codeName = categoryCode.getCodeName();
+    }
+
+    private CategoryCodeDTO toDTO() {
+      return CategoryCodeDTO.builder().id(id).name(codeName).build();
+    }
+  }
+
+  private static final class Snapshot {
+    private final String version;
+    private final Map<Long, Code> byId;
+    private final Map<String, Long> idByName;
+    private final Map<String, List<Code>> byCategory;
+
+    private Snapshot(List<CategoryCode> rows) {
+      List<Code> codes = rows.stream()
+          .map(Code::new)
+          .sorted(Comparator.comparing(code -> code.id))
+          .collect(Collectors.toList());
+
+      Map<Long, Code> ids = new HashMap<>();
+      Map<String, Long> names = new HashMap<>();
+      Map<String, List<Code>> categories = new HashMap<>();
+      StringBuilder content = new StringBuilder();
+      for (Code code : codes) {
+        ids.put(code.id, code);
+        names.putIfAbsent(nameKey(code.categoryName, code.codeName), code.id);
+        categories.computeIfAbsent(code.categoryName == null ? "" : code.categoryName.toLowerCase(Locale.ROOT),
+            key -> new ArrayList<>()).add(code);
+        content.append(code.id).append('\t').append(code.categoryName).append('\t').append(code.codeName).append('\n');
+      }
+      categories.replaceAll((key, list) -> Collections.unmodifiableList(list));
+
+      this.version = HashUtil.sha256Hex(content.toString()).substring(0, 16);
+      this.byId = Collections.unmodifiableMap(ids);
+      this.idByName = Collections.unmodifiableMap(names);
+      this.byCategory = Collections.unmodifiableMap(categories);
+    }
+  }
+}
@@ -0,0 +1,75 @@
+package com.d2y.d2yapiofficial.services;
+
+import java.util.Map;
+import java.util.UUID;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import com.d2y.d2yapiofficial.dto.event.DomainEvent;
+import com.d2y.d2yapiofficial.utils.TransactionUtil;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Publishes domain events once the surrounding transaction commits, keyed by
+ * aggregate so events of one user or role stay ordered. A no-op unless
+ * {@code events.kafka.enabled=true}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class DomainEventPublisher {
+
+  private static final int VERSION = 1;
+
+  private final ObjectProvider<KafkaTemplate<String, DomainEvent>> kafkaTemplate;
+  private final MeterRegistry meterRegistry;
+
+  // Boot's own KafkaTemplate<?, ?> would also satisfy the provider when
+  // KafkaProducerConfig is off, so the flag is checked explicitly.
+  @Value("${events.kafka.enabled:false}")
+  private boolean enabled;
+
+  private Counter published;
+  private Counter failed;
+
+  @PostConstruct
+  void registerMetrics() {
+    published = Counter.builder("events.published").register(meterRegistry);
+    failed = Counter.builder("events.failed").register(meterRegistry);
+  }
+
+  public void publish(String type, String aggregateType, Long aggregateId, Map<String, Object> data) {
+    if (!enabled) {
+      return;
+    }
+    KafkaTemplate<String, DomainEvent> template = kafkaTemplate.getObject();
+
+    DomainEvent event = DomainEvent.builder()
+        .eventId(UUID.randomUUID().toString())
+        .type(type)
+        .version(VERSION)
+        .aggregateType(aggregateType)
+        .aggregateId(aggregateId)
+        .occurredOn(System.currentTimeMillis())
+        .data(data)
+        .build();
+
+    TransactionUtil.afterCommit(() -> template.sendDefault(aggregateType + ":" + aggregateId, event)
+        .addCallback(
+            result -> published.increment(),
+            ex -> {
+              failed.increment();
+              log.error("Publishing {} for {} {} failed", type, aggregateType, aggregateId, ex);
+            }));
+  }
+}
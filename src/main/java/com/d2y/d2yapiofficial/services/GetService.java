@@ -17,10 +17,10 @@ import com.d2y.d2yapiofficial.models.CategoryCode;
 import com.d2y.d2yapiofficial.models.RolePrivilege;
 import com.d2y.d2yapiofficial.models.User;
 import com.d2y.d2yapiofficial.models.UserRole;
-import com.d2y.d2yapiofficial.repositories.CategoryCodeRepository;
 import com.d2y.d2yapiofficial.repositories.RolePrivilegeRepository;
 import com.d2y.d2yapiofficial.repositories.UserRepository;
 import com.d2y.d2yapiofficial.repositories.UserRoleRepository;
+import com.d2y.d2yapiofficial.security.IdentityContext;
 
 import lombok.RequiredArgsConstructor;
 
@@ -28,22 +28,23 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor(onConstructor = @__(@Autowired))
 public class GetService {
 
-  private final CategoryCodeRepository categoryCodeRepository;
+  private final CategoryCodeCache categoryCodeCache;
   private final UserRepository userRepository;
   private final RolePrivilegeRepository rolePrivilegeRepository;
   private final UserRoleRepository userRoleRepository;
   private final Validator validator;
+  private final IdentityContext identityContext;
 
   public User getUser(Long id, String message) {
     return userRepository.findByIdAndActive(id).orElseThrow(() -> new EntityNotFoundException(message));
   }
 
   public User getUserByEmail(String email, String message) {
-    return userRepository.findByEmail(email).orElseThrow(() -> new EntityNotFoundException(message));
+    return identityContext.getUserByEmail(email).orElseThrow(() -> new EntityNotFoundException(message));
   }
 
   public CategoryCode getCategoryCode(Long id, String message) {
-    return categoryCodeRepository.findById(id).orElseThrow(() -> new EntityNotFoundException(message));
+    return categoryCodeCache.reference(id, message);
   }
 
   public RolePrivilege getRolePrivilege(UserRole role, String message) {
@@ -0,0 +1,110 @@
+package com.d2y.d2yapiofficial.services;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.d2y.d2yapiofficial.models.MailOutbox;
+import com.d2y.d2yapiofficial.models.NotificationEmail;
+import com.d2y.d2yapiofficial.repositories.MailOutboxRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Mail intents are written in the caller's transaction and delivered later by
+ * {@code MailOutboxSchedule}, so no SMTP round-trip happens while a request
+ * holds a database connection.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+@Transactional
+public class MailOutboxService {
+
+  private static final int MAX_ERROR_LENGTH = 1000;
+
+  private final MailOutboxRepository mailOutboxRepository;
+
+  @Value("${mail.outbox.lease:300000}")
+  private long leaseMillis;
+
+  @Value("${mail.outbox.max-attempts:8}")
+  private int maxAttempts;
+
+  @Value("${mail.outbox.backoff:30000}")
+  private long backoffMillis;
+
+  @Value("${mail.outbox.max-backoff:3600000}")
+  private long maxBackoffMillis;
+
+  public MailOutbox enqueue(NotificationEmail notificationEmail) {
+    Timestamp now = new Timestamp(System.currentTimeMillis());
+    return mailOutboxRepository.save(MailOutbox.builder()
+        .recipient(notificationEmail.getRecipient())
+        .subject(notificationEmail.getSubject())
+        .username(notificationEmail.getUsername())
+        .verificationUrl(notificationEmail.getVerificationUrl())
+        .status(MailOutbox.Status.PENDING)
+        .attempts(0)
+        .nextAttemptAt(now)
+        .createdOn(now)
+        .build());
+  }
+
+  /**
+   * Locks up to {@code limit} due rows and leases them to the caller by
+   * pushing their next attempt past the lease; a dispatcher that dies
+   * mid-batch therefore only delays those rows.
+   */
+  public List<MailOutbox> claim(int limit) {
+    long now = System.currentTimeMillis();
+    List<MailOutbox> claimed = mailOutboxRepository.lockDue(new Timestamp(now), limit);
+    Timestamp leasedUntil = new Timestamp(now + leaseMillis);
+    claimed.forEach(mail -> mail.setNextAttemptAt(leasedUntil));
+    return claimed;
+  }
+
+  public void markSent(Long mailOutboxId) {
+    mailOutboxRepository.findById(mailOutboxId).ifPresent(mail -> {
+      mail.setStatus(MailOutbox.Status.SENT);
+      mail.setSentOn(new Timestamp(System.currentTimeMillis()));
+      mail.setLastError(null);
+    });
+  }
+
+  /**
+   * Schedules another attempt with exponential backoff, or gives up after
+   * {@code mail.outbox.max-attempts}. Returns whether a retry was scheduled.
+   */
+  public boolean markFailed(Long mailOutboxId, String error) {
+    MailOutbox mail = mailOutboxRepository.findById(mailOutboxId).orElse(null);
+    if (mail == null) {
+      return false;
+    }
+
+    int attempts = mail.getAttempts() + 1;
+    mail.setAttempts(attempts);
+    mail.setLastError(error != null && error.length() > MAX_ERROR_LENGTH
+        ? error.substring(0, MAX_ERROR_LENGTH)
+        : error);
+    if (attempts >= maxAttempts) {
+      mail.setStatus(MailOutbox.Status.FAILED);
+      log.error("Giving up on mail {} to {} after {} attempts", mailOutboxId, mail.getRecipient(), attempts);
+      return false;
+    }
+
+    long delay = Math.min(maxBackoffMillis, backoffMillis << Math.min(attempts - 1, 20));
+    mail.setNextAttemptAt(new Timestamp(System.currentTimeMillis() + delay));
+    return true;
+  }
+
+  @Transactional(readOnly = true)
+  public Timestamp getOldestPending() {
+    return mailOutboxRepository.findOldestPending();
+  }
+}
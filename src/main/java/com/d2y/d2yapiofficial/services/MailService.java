@@ -7,7 +7,6 @@ import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.mail.javamail.MimeMessagePreparator;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.context.Context;
@@ -15,6 +14,7 @@ import org.thymeleaf.context.Context;
 import com.d2y.d2yapiofficial.models.NotificationEmail;
 import com.d2y.d2yapiofficial.utils.constants.ConstantMessage;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -25,12 +25,16 @@ public class MailService {
 
   private final JavaMailSender mailSender;
   private final TemplateEngine templateEngine;
+  private final MeterRegistry meterRegistry;
 
   @Value("${spring.mail.sender}")
   private String emailSenderAddress;
 
-  @Async
-  void sendMail(NotificationEmail notificationEmail) {
+  /**
+   * Renders and sends synchronously. Request paths should go through
+   * {@link MailOutboxService#enqueue} instead.
+   */
+  public void sendMail(NotificationEmail notificationEmail) {
     MimeMessagePreparator messagePreparator = mimeMessage -> {
       MimeMessageHelper messageHelper = new MimeMessageHelper(mimeMessage);
       messageHelper.setFrom(emailSenderAddress, "D2Y OFFICIAL");
@@ -41,7 +45,7 @@ public class MailService {
       messageHelper.setText(emailContent, true);
     };
     try {
-      mailSender.send(messagePreparator);
+      meterRegistry.timer("mail.send.latency").record(() -> mailSender.send(messagePreparator));
       log.info(ConstantMessage.EMAIL_NOTIF_SENT);
     } catch (MailException ex) {
       throw new MailSendException(ConstantMessage.EXCEPTION_EMAIL_SENT + notificationEmail.getRecipient(), ex);
@@ -9,11 +9,15 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.d2y.d2yapiofficial.dto.auth.RefreshTokenRotation;
 import com.d2y.d2yapiofficial.models.RefreshToken;
 import com.d2y.d2yapiofficial.repositories.RefreshTokenRepository;
+import com.d2y.d2yapiofficial.utils.HashUtil;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor(onConstructor = @__(@Autowired))
 @Transactional
@@ -21,20 +25,52 @@ public class RefreshTokenService {
 
   private final RefreshTokenRepository refreshTokenRepository;
 
-  public RefreshToken generateRefreshToken() {
-    RefreshToken refreshToken = new RefreshToken();
-    refreshToken.setToken(UUID.randomUUID().toString());
-    refreshToken.setCreatedOn(new Timestamp(System.currentTimeMillis()));
-
-    return refreshTokenRepository.save(refreshToken);
+  /**
+   * Starts a new token family (one per login) for the user and returns the
+   * raw token.
+   */
+  public String generateRefreshToken(Long userId) {
+    return issue(UUID.randomUUID().toString(), userId);
   }
 
-  void validateRefreshToken(String token) {
-    refreshTokenRepository.findByToken(token)
+  /**
+   * Consumes the presented token and returns its successor in the same
+   * family, with the user the family belongs to. Tokens issued before families
+   * recorded their user are refused; those clients log in again. Presenting a
+   * token that was already consumed means it leaked (or two clients share
+   * it), so the whole family is revoked; that delete must survive the
+   * exception, hence {@code noRollbackFor}.
+   */
+  @Transactional(noRollbackFor = ValidationException.class)
+  public RefreshTokenRotation rotateRefreshToken(String token) {
+    RefreshToken current = refreshTokenRepository.findByTokenHash(HashUtil.sha256Hex(token))
+        .filter(refreshToken -> refreshToken.getUserId() != null)
         .orElseThrow(() -> new ValidationException("Invalid Refresh Token"));
+
+    if (refreshTokenRepository.consume(current.getRefreshTokenId()) == 0) {
+      int revoked = refreshTokenRepository.deleteByFamily(current.getFamilyId());
+      log.warn("Refresh token reuse detected, revoked {} token(s) of family {}", revoked, current.getFamilyId());
+      throw new ValidationException("Invalid Refresh Token");
+    }
+
+    return new RefreshTokenRotation(current.getUserId(), issue(current.getFamilyId(), current.getUserId()));
   }
 
   public void deleteRefreshToken(String token) {
-    refreshTokenRepository.deleteByToken(token);
+    refreshTokenRepository.deleteFamilyByTokenHash(HashUtil.sha256Hex(token));
+  }
+
+  private String issue(String familyId, Long userId) {
+    String token = UUID.randomUUID().toString();
+
+    RefreshToken refreshToken = new RefreshToken();
+    refreshToken.setTokenHash(HashUtil.sha256Hex(token));
+    refreshToken.setFamilyId(familyId);
+    refreshToken.setUserId(userId);
+    refreshToken.setConsumed(false);
+    refreshToken.setCreatedOn(new Timestamp(System.currentTimeMillis()));
+    refreshTokenRepository.save(refreshToken);
+
+    return token;
   }
-}
\ No newline at end of file
+}
@@ -1,7 +1,10 @@
 package com.d2y.d2yapiofficial.services;
 
-import java.util.ArrayList;
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
@@ -14,27 +17,37 @@ import javax.transaction.Transactional;
 import javax.validation.ConstraintViolation;
 import javax.validation.ValidationException;
 import javax.validation.Validator;
-import javax.ws.rs.ForbiddenException;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 
+import com.d2y.d2yapiofficial.dto.page.CursorPage;
 import com.d2y.d2yapiofficial.dto.privilege.AddRolePrivilegeDTO;
 import com.d2y.d2yapiofficial.dto.privilege.DetailRolePrivilegeDTO;
 import com.d2y.d2yapiofficial.dto.privilege.ListDetailPrivilegeDTO;
 import com.d2y.d2yapiofficial.dto.privilege.ResponseAddRolePrivilegeDTO;
 import com.d2y.d2yapiofficial.dto.privilege.ResponseUpdateRolePrivilegeDTO;
 import com.d2y.d2yapiofficial.dto.privilege.UpdateRolePrivilegeDTO;
+import com.d2y.d2yapiofficial.exceptions.UnauthorizedException;
 import com.d2y.d2yapiofficial.models.CategoryCode;
+import com.d2y.d2yapiofficial.ol.dto.CategoryCodeDTO;
 import com.d2y.d2yapiofficial.models.RolePrivilege;
 import com.d2y.d2yapiofficial.models.User;
 import com.d2y.d2yapiofficial.models.UserRole;
 import com.d2y.d2yapiofficial.repositories.CategoryCodeRepository;
+import com.d2y.d2yapiofficial.repositories.RolePrivilegeJdbcRepository;
 import com.d2y.d2yapiofficial.repositories.RolePrivilegeRepository;
 import com.d2y.d2yapiofficial.repositories.UserRoleRepository;
-import com.d2y.d2yapiofficial.utils.constants.ConstantMessage;
+import com.d2y.d2yapiofficial.security.AuthorizationSnapshotCache;
+import com.d2y.d2yapiofficial.security.IdentityContext;
+import com.d2y.d2yapiofficial.utils.BatchLoader;
+import com.d2y.d2yapiofficial.utils.CursorCodec;
+import com.d2y.d2yapiofficial.utils.constants.DomainEventType;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -43,30 +56,34 @@ import lombok.extern.slf4j.Slf4j;
 @Service
 @RequiredArgsConstructor(onConstructor = @__(@Autowired))
 public class RolePrivilegeService {
-  private final GetService getService;
   private final UserRoleRepository userRoleRepository;
   private final RolePrivilegeRepository rolePrivilegeRepository;
+  private final RolePrivilegeJdbcRepository rolePrivilegeJdbcRepository;
   private final CategoryCodeRepository categoryCodeRepository;
+  private final CategoryCodeCache categoryCodeCache;
   private final TimestampService timestampService;
   private final Validator validator;
+  private final AuthorizationSnapshotCache authorizationSnapshotCache;
+  private final DomainEventPublisher domainEventPublisher;
+  private final IdentityContext identityContext;
 
   public Long getAllRollePrivilege() {
     return rolePrivilegeRepository.findRolePrivilegeActive();
   }
 
   @Transactional
+  @PreAuthorize("hasPermission(null, 'ACCESS_MANAGEMENT')")
   public void deleteRolePrivilege(Long id) {
     try {
-      CategoryCode role = categoryCodeRepository.findByCategoryCodeId(id)
-          .orElseThrow(() -> new EntityNotFoundException("Role Id Not Found"));
-      List<RolePrivilege> privilege = rolePrivilegeRepository.findByIdList(role);
+      Long updatedBy = getCallerId();
+      CategoryCode role = categoryCodeCache.reference(id, "Role Id Not Found");
       List<UserRole> cekRole = userRoleRepository.findRoleIdActive(role);
       if (cekRole.isEmpty()) {
-        for (RolePrivilege uRole : privilege) {
-          uRole.setActive(false);
-          uRole.setUpdateOn(timestampService.getUtcTimestamp());
-        }
-        rolePrivilegeRepository.saveAll(privilege);
+        rolePrivilegeJdbcRepository.deactivateAll(role.getCategoryCodeId(), updatedBy,
+            timestampService.getUtcTimestamp());
+        authorizationSnapshotCache.evictRole(role.getCategoryCodeId());
+        domainEventPublisher.publish(DomainEventType.ROLE_PRIVILEGES_DELETED, DomainEventType.AGGREGATE_ROLE,
+            role.getCategoryCodeId(), Collections.emptyMap());
       } else {
         throw new EntityExistsException("The Role cannot be deleted because there are still User Role.");
       }
@@ -77,44 +94,67 @@ public class RolePrivilegeService {
   }
 
   public Page<DetailRolePrivilegeDTO> convertToRolePrivilegeDTO(Pageable pageable, String search) {
-    Page<Map<String, Object>> listRoleID = rolePrivilegeRepository.findAllRoleId(pageable, search.toLowerCase());
-    return listRoleID.map(rolePrivilegeMap -> {
-      String test = Objects.toString(rolePrivilegeMap.get("role_id"));
-      Integer roleId = Integer.parseInt(test);
-      return convertToDTO(roleId);
-    });
+    Page<Map<String, Object>> listRoleID = rolePrivilegeRepository.findAllRoleId(pageable,
+        search == null ? "" : search.toLowerCase(Locale.ROOT));
+    List<Long> roleIds = listRoleID.getContent().stream()
+        .map(rolePrivilegeMap -> Long.valueOf(Objects.toString(rolePrivilegeMap.get("role_id"))))
+        .collect(Collectors.toList());
+    return new PageImpl<>(convertToDTOs(roleIds), pageable, listRoleID.getTotalElements());
   }
 
-  private DetailRolePrivilegeDTO convertToDTO(Integer roleIdInt) {
-    CategoryCode roleId = categoryCodeRepository.findByCategoryCodeId((long) roleIdInt)
-        .orElseThrow(() -> new EntityNotFoundException("Role ID Not Found!"));
-    List<RolePrivilege> listRole = rolePrivilegeRepository.findByIdList(roleId);
-    List<ListDetailPrivilegeDTO> list = listRole.stream().map(this::listDetailPrivilegeDTO)
+  // Keyset walk over role_id; the cursor's sort key is the id itself.
+  public CursorPage<DetailRolePrivilegeDTO> getRolePrivilegesAfter(String cursor, Pageable pageable, String search) {
+    Sort.Order order = pageable.getSort().getOrderFor("roleId");
+    if ((pageable.getSort().isSorted() && order == null) || (order != null && order.isDescending())) {
+      throw new ValidationException("Cursor pagination only supports ascending sort by roleId.");
+    }
+
+    int size = pageable.getPageSize();
+    CursorCodec.Cursor after = CursorCodec.decode(cursor, "roleId");
+    List<Long> roleIds = rolePrivilegeRepository.findRoleIdsAfter(
+        search == null ? "" : search.toLowerCase(Locale.ROOT), after.getId(), size + 1).stream()
+        .map(row -> Long.valueOf(Objects.toString(row.get("role_id"))))
         .collect(Collectors.toList());
-    return DetailRolePrivilegeDTO.builder()
-        .roleId(roleId.getCategoryCodeId())
-        .roleName(roleId.getCodeName())
-        .listPrivilege(list)
-        .build();
+
+    CursorPage<Long> page = CursorPage.of(roleIds, size, roleId -> CursorCodec.encode("roleId", "", roleId));
+    return new CursorPage<>(convertToDTOs(page.getContent()), page.getNextCursor());
+  }
+
+  // Role names come from the category code snapshot; one query loads the privileges of the whole page.
+  private List<DetailRolePrivilegeDTO> convertToDTOs(List<Long> roleIds) {
+    Map<Long, List<RolePrivilege>> rolePrivileges = BatchLoader.loadGrouped(roleIds,
+        rolePrivilegeRepository::findActiveByRoleIds, rolePrivilege -> rolePrivilege.getRoleId().getCategoryCodeId());
+
+    return roleIds.stream().map(id -> {
+      CategoryCodeDTO roleId = categoryCodeCache.get(id, "Role ID Not Found!");
+      List<ListDetailPrivilegeDTO> list = rolePrivileges.getOrDefault(id, Collections.emptyList()).stream()
+          .map(this::listDetailPrivilegeDTO)
+          .collect(Collectors.toList());
+      return DetailRolePrivilegeDTO.builder()
+          .roleId(roleId.getId())
+          .roleName(roleId.getName())
+          .listPrivilege(list)
+          .build();
+    }).collect(Collectors.toList());
   }
 
   private ListDetailPrivilegeDTO listDetailPrivilegeDTO(RolePrivilege rolePrivilege) {
     return ListDetailPrivilegeDTO.builder()
         .rolePrivilegeId(rolePrivilege.getRolePrivilegeId())
         .privilegeId(rolePrivilege.getPrivilegeId().getCategoryCodeId())
-        .privilegeName(rolePrivilege.getPrivilegeId().getCodeName())
+        .privilegeName(categoryCodeCache.nameOf(rolePrivilege.getPrivilegeId().getCategoryCodeId()))
         .build();
   }
 
   public DetailRolePrivilegeDTO getDetailRolePrivilege(Long id) {
-    CategoryCode roleId = categoryCodeRepository.findByCategoryCodeId(id)
-        .orElseThrow(() -> new EntityNotFoundException("Role ID Not Found!"));
-    List<RolePrivilege> listRolePrivilege = rolePrivilegeRepository.findByIdList(roleId);
+    CategoryCodeDTO roleId = categoryCodeCache.get(id, "Role ID Not Found!");
+    List<RolePrivilege> listRolePrivilege = rolePrivilegeRepository
+        .findByIdList(categoryCodeRepository.getReferenceById(id));
     List<ListDetailPrivilegeDTO> detailRolePrivilegeDTO = listRolePrivilege.stream()
         .map(this::converListDetailPrivilegeDTO).collect(Collectors.toList());
     return DetailRolePrivilegeDTO.builder()
-        .roleId(roleId.getCategoryCodeId())
-        .roleName(roleId.getCodeName())
+        .roleId(roleId.getId())
+        .roleName(roleId.getName())
         .listPrivilege(detailRolePrivilegeDTO)
         .build();
   }
@@ -123,7 +163,7 @@ public class RolePrivilegeService {
     return ListDetailPrivilegeDTO.builder()
         .rolePrivilegeId(rolePrivilege.getRolePrivilegeId())
         .privilegeId(rolePrivilege.getPrivilegeId().getCategoryCodeId())
-        .privilegeName(rolePrivilege.getPrivilegeId().getCodeName())
+        .privilegeName(categoryCodeCache.nameOf(rolePrivilege.getPrivilegeId().getCategoryCodeId()))
         .build();
   }
 
@@ -133,10 +173,11 @@ public class RolePrivilegeService {
   }
 
   CategoryCode getCategoryId(Long id) {
-    return categoryCodeRepository.findById(id).orElseThrow(() -> new EntityNotFoundException("Role Id Not Found!"));
+    return categoryCodeCache.reference(id, "Role Id Not Found!");
   }
 
   @Transactional
+  @PreAuthorize("hasPermission(null, 'ACCESS_MANAGEMENT')")
   public RolePrivilege createRolePrivilege(AddRolePrivilegeDTO rolePrivilege) {
     try {
       Set<ConstraintViolation<AddRolePrivilegeDTO>> violations = validator.validate(rolePrivilege);
@@ -146,39 +187,36 @@ public class RolePrivilegeService {
             .collect(Collectors.toList());
         throw new ValidationException(errors.get(0));
       }
+      Long createdBy = getCallerId();
       CategoryCode idRole = getCategoryId(rolePrivilege.getRoleId());
-      List<Boolean> isPermission = checkPermission(rolePrivilege.getCreatedBy());
       List<RolePrivilege> existingRole = rolePrivilegeRepository.findByUserIdAndActive(idRole);
       RolePrivilege role = new RolePrivilege();
-      if (isPermission.contains(true)) {
-        if (existingRole.isEmpty()) {
-          for (Long id : rolePrivilege.getListPrivilege()) {
-            CategoryCode privilege = categoryCodeRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("Privilege Id Not Found!"));
-            Optional<RolePrivilege> existingUserRole = rolePrivilegeRepository.findByUserRoleAndPrivilege(idRole,
-                privilege);
-            if (!existingUserRole.isPresent()) {
-              role = RolePrivilege.builder()
-                  .rolePrivilegeId(rolePrivilege.getRolePrivilegeId())
-                  .roleId(idRole)
-                  .privilegeId(privilege)
-                  .active(true)
-                  .createdBy(rolePrivilege.getCreatedBy())
-                  .createdOn(timestampService.getUtcTimestamp())
-                  .updateBy(rolePrivilege.getUpdatedBy())
-                  .updateOn(timestampService.getUtcTimestamp())
-                  .build();
-              rolePrivilegeRepository.save(role);
-            } else {
-              existingUserRole.get().setActive(true);
-              role = existingUserRole.get();
-            }
+      if (existingRole.isEmpty()) {
+        for (Long id : rolePrivilege.getListPrivilege()) {
+          CategoryCode privilege = categoryCodeCache.reference(id, "Privilege Id Not Found!");
+          Optional<RolePrivilege> existingUserRole = rolePrivilegeRepository.findByUserRoleAndPrivilege(idRole,
+              privilege);
+          if (!existingUserRole.isPresent()) {
+            role = RolePrivilege.builder()
+                .rolePrivilegeId(rolePrivilege.getRolePrivilegeId())
+                .roleId(idRole)
+                .privilegeId(privilege)
+                .active(true)
+                .createdBy(createdBy)
+                .createdOn(timestampService.getUtcTimestamp())
+                .updateBy(createdBy)
+                .updateOn(timestampService.getUtcTimestamp())
+                .build();
+            rolePrivilegeRepository.save(role);
+          } else {
+            existingUserRole.get().setActive(true);
+            role = existingUserRole.get();
           }
-        } else {
-          throw new EntityExistsException("Role Privilege Data Already Exist!");
         }
+        authorizationSnapshotCache.evictRole(idRole.getCategoryCodeId());
+        publishPrivilegesChanged(idRole.getCategoryCodeId(), rolePrivilege.getListPrivilege());
       } else {
-        throw new ForbiddenException("You Don't Have Permission To Add Role Privilege!");
+        throw new EntityExistsException("Role Privilege Data Already Exist!");
       }
       return role;
     } catch (Exception ex) {
@@ -194,7 +232,7 @@ public class RolePrivilegeService {
     return ResponseAddRolePrivilegeDTO.builder()
         .rolePrivilegeId(role.getRolePrivilegeId())
         .roleId(role.getRoleId().getCategoryCodeId())
-        .roleName(role.getRoleId().getCodeName())
+        .roleName(categoryCodeCache.nameOf(role.getRoleId().getCategoryCodeId()))
         .listPrivilege(listPrivilege)
         .active(true)
         .createdBy(role.getCreatedBy())
@@ -205,22 +243,27 @@ public class RolePrivilegeService {
   }
 
   public ResponseUpdateRolePrivilegeDTO responseUpdateRolePrivilegeDTO(Long id) {
-    CategoryCode categoryId = categoryCodeRepository.findById(id)
-        .orElseThrow(() -> new EntityNotFoundException("Role Not Found"));
-    List<RolePrivilege> userRoles = rolePrivilegeRepository.findIdActive(categoryId);
+    CategoryCodeDTO categoryId = categoryCodeCache.get(id, "Role Not Found");
+    List<RolePrivilege> userRoles = rolePrivilegeRepository.findIdActive(categoryCodeRepository.getReferenceById(id));
     List<ListDetailPrivilegeDTO> userRoleDTOs = userRoles.stream()
         .map(this::convertRolePrivilegeDTO)
         .collect(Collectors.toList());
 
     return ResponseUpdateRolePrivilegeDTO.builder()
         .roleId(id)
-        .roleName(categoryId.getCodeName())
+        .roleName(categoryId.getName())
         .privilegeId(userRoleDTOs)
         .build();
   }
 
+  /**
+   * Replaces the role's active privileges with the requested set, writing only
+   * the difference: at most one bulk deactivate, one bulk re-activate and one
+   * batched upsert.
+   */
   @Transactional
-  public List<RolePrivilege> updateRolePrivilege(Long id, UpdateRolePrivilegeDTO userRoleDTO) {
+  @PreAuthorize("hasPermission(null, 'ACCESS_MANAGEMENT')")
+  public void updateRolePrivilege(Long id, UpdateRolePrivilegeDTO userRoleDTO) {
     try {
       Set<ConstraintViolation<UpdateRolePrivilegeDTO>> violations = validator.validate(userRoleDTO);
       if (!violations.isEmpty()) {
@@ -229,80 +272,55 @@ public class RolePrivilegeService {
             .collect(Collectors.toList());
         throw new ValidationException(errors.get(0));
       }
-      CategoryCode categoryId = categoryCodeRepository.findById(id)
-          .orElseThrow(() -> new EntityNotFoundException("Id Not Found"));
-      List<RolePrivilege> userRoles = rolePrivilegeRepository.findByIdList(categoryId);
-      List<Boolean> isPremision = checkPermission(userRoleDTO.getUpdatedBy());
-      if (isPremision.contains(true)) {
-        for (RolePrivilege uRole : userRoles) {
-          uRole.setActive(false);
-          uRole.setUpdateOn(timestampService.getUtcTimestamp());
-        }
-        rolePrivilegeRepository.saveAll(userRoles);
-        updateRolePrivilege(id, userRoles, userRoleDTO);
-      } else {
-        throw new ForbiddenException("You Don't Have Permission To Update Role Privilege!");
+      Long updatedBy = getCallerId();
+      categoryCodeCache.get(id, "Id Not Found");
+      Set<Long> desired = new LinkedHashSet<>(userRoleDTO.getPrivilegeId());
+      for (Long privilegeId : desired) {
+        categoryCodeCache.get(privilegeId, "Privilege ID Not Found!");
       }
-      return userRoles;
-    } catch (Exception ex) {
-      log.info(ex.getMessage());
-      throw ex;
-    }
-  }
-
-  @Transactional
-  public void updateRolePrivilege(Long id, List<RolePrivilege> usersRole, UpdateRolePrivilegeDTO userRoleDTO) {
-    try {
-      for (int i = 0; i < userRoleDTO.getPrivilegeId().size(); i++) {
-        CategoryCode categoryRoleId = categoryCodeRepository.findById(id)
-            .orElseThrow(() -> new EntityNotFoundException("Id Not Found"));
-        Long privilegeId = userRoleDTO.getPrivilegeId().get(i);
 
-        CategoryCode privilegeCode = categoryCodeRepository.findById(privilegeId)
-            .orElseThrow(() -> new EntityNotFoundException("Privilege ID Not Found!"));
+      Map<Long, Boolean> current = rolePrivilegeJdbcRepository.findPrivileges(id);
+      List<Long> deactivate = current.entrySet().stream()
+          .filter(privilege -> privilege.getValue() && !desired.contains(privilege.getKey()))
+          .map(Map.Entry::getKey)
+          .collect(Collectors.toList());
+      List<Long> reactivate = desired.stream()
+          .filter(privilegeId -> Boolean.FALSE.equals(current.get(privilegeId)))
+          .collect(Collectors.toList());
+      List<Long> inserts = desired.stream()
+          .filter(privilegeId -> !current.containsKey(privilegeId))
+          .collect(Collectors.toList());
 
-        Optional<RolePrivilege> existingUserRole = rolePrivilegeRepository.findByUserRoleAndPrivilege(categoryRoleId,
-            privilegeCode);
+      Timestamp now = timestampService.getUtcTimestamp();
+      rolePrivilegeJdbcRepository.setActive(id, deactivate, false, updatedBy, now);
+      rolePrivilegeJdbcRepository.setActive(id, reactivate, true, updatedBy, now);
+      rolePrivilegeJdbcRepository.upsertPrivileges(id, inserts, updatedBy, now);
 
-        if (existingUserRole.isPresent()) {
-          existingUserRole.get().setActive(true);
-          existingUserRole.get().setUpdateOn(timestampService.getUtcTimestamp());
-          existingUserRole.get().setUpdateBy(userRoleDTO.getUpdatedBy());
-          rolePrivilegeRepository.save(existingUserRole.get());
-        } else {
-          RolePrivilege newUserRole = RolePrivilege.builder()
-              .roleId(categoryRoleId)
-              .privilegeId(privilegeCode)
-              .active(true)
-              .createdOn(timestampService.getUtcTimestamp())
-              .updateOn(timestampService.getUtcTimestamp())
-              .updateBy(userRoleDTO.getUpdatedBy())
-              .createdBy(userRoleDTO.getUpdatedBy())
-              .build();
-          rolePrivilegeRepository.save(newUserRole);
-        }
-      }
+      authorizationSnapshotCache.evictRole(id);
+      publishPrivilegesChanged(id, userRoleDTO.getPrivilegeId());
     } catch (Exception ex) {
       log.info(ex.getMessage());
       throw ex;
     }
   }
 
+  private void publishPrivilegesChanged(Long roleId, List<Long> privilegeIds) {
+    domainEventPublisher.publish(DomainEventType.ROLE_PRIVILEGES_CHANGED, DomainEventType.AGGREGATE_ROLE, roleId,
+        Map.of("privilegeIds", privilegeIds));
+  }
+
   private ListDetailPrivilegeDTO convertRolePrivilegeDTO(RolePrivilege rolePrivilege) {
     return ListDetailPrivilegeDTO.builder()
         .rolePrivilegeId(rolePrivilege.getRoleId().getCategoryCodeId())
         .privilegeId(rolePrivilege.getPrivilegeId().getCategoryCodeId())
-        .privilegeName(rolePrivilege.getPrivilegeId().getCodeName())
+        .privilegeName(categoryCodeCache.nameOf(rolePrivilege.getPrivilegeId().getCategoryCodeId()))
         .build();
   }
 
-  private List<Boolean> checkPermission(Long userId) {
-    User user = getService.getUser(userId, ConstantMessage.USER_NOT_FOUND);
-    List<UserRole> listUserRole = userRoleRepository.findByIdAndActiveList(user);
-    List<Boolean> isPermission = new ArrayList<>();
-    for (UserRole uRole : listUserRole) {
-      isPermission.add(userRoleRepository.isPermissionForUserRoleManipulation(uRole.getRoleId().getCategoryCodeId()));
-    }
-    return isPermission;
+  // Audit columns always name the authenticated caller, never a client-supplied id.
+  private Long getCallerId() {
+    return identityContext.getCaller()
+        .map(User::getUserId)
+        .orElseThrow(UnauthorizedException::new);
   }
 }
@@ -3,7 +3,6 @@ package com.d2y.d2yapiofficial.services;
 import static java.util.Collections.singletonList;
 
 import java.util.Collection;
-import java.util.Optional;
 
 import javax.persistence.EntityExistsException;
 
@@ -11,25 +10,29 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.d2y.d2yapiofficial.models.User;
 import com.d2y.d2yapiofficial.repositories.UserRepository;
+import com.d2y.d2yapiofficial.security.IdentityContext;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor(onConstructor = @__(@Autowired))
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
+  private final IdentityContext identityContext;
   private final UserRepository userRepository;
 
   @Override
   @Transactional(readOnly = true)
   public UserDetails loadUserByUsername(String email) {
-    Optional<User> userOptional = userRepository.findByEmail(email);
-    User user = userOptional
+    User user = identityContext.getUserByEmail(email)
         .orElseThrow(() -> new EntityExistsException("User Not Found!"));
 
     return new org.springframework.security.core.userdetails.User(user.getEmail(), user.getPassword(),
@@ -39,6 +42,20 @@ public class UserDetailsServiceImpl implements UserDetailsService {
         getAuthorities("USER"));
   }
 
+  @Override
+  @Transactional
+  public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+    User user = identityContext.getUserByEmail(userDetails.getUsername())
+        .orElseThrow(() -> new EntityExistsException("User Not Found!"));
+    user.setPassword(newPassword);
+    userRepository.save(user);
+    log.info("Upgraded password hash of user {}", user.getUserId());
+
+    return org.springframework.security.core.userdetails.User.withUserDetails(userDetails)
+        .password(newPassword)
+        .build();
+  }
+
   private Collection<? extends GrantedAuthority> getAuthorities(String role) {
     return singletonList(new SimpleGrantedAuthority(role));
   }
@@ -0,0 +1,130 @@
+package com.d2y.d2yapiofficial.services;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.validation.ValidationException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.d2y.d2yapiofficial.dto.role.RoleDTO;
+import com.d2y.d2yapiofficial.dto.user.UserExportDTO;
+import com.d2y.d2yapiofficial.repositories.UserExportJdbcRepository;
+import com.d2y.d2yapiofficial.utils.CsvUtil;
+import com.d2y.d2yapiofficial.utils.constants.DataFormat;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Streams the user directory with each user's active roles as NDJSON or CSV.
+ * Rows go from a forward-only cursor straight to the response, one at a time,
+ * inside a read-only transaction, so memory stays flat however many users
+ * there are. Role names come from the {@link CategoryCodeCache}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class UserExportService {
+
+  private static final String CSV_HEADER = "user_id,username,email,phone_number,registration_date,last_login,"
+      + "enabled,role_ids,role_names";
+
+  private final UserExportJdbcRepository userExportJdbcRepository;
+  private final CategoryCodeCache categoryCodeCache;
+  private final PlatformTransactionManager transactionManager;
+  private final ObjectMapper objectMapper;
+  private final MeterRegistry meterRegistry;
+
+  private TransactionTemplate readOnlyTransaction;
+  private Counter exportedCounter;
+
+  @PostConstruct
+  void init() {
+    readOnlyTransaction = new TransactionTemplate(transactionManager);
+    readOnlyTransaction.setReadOnly(true);
+    exportedCounter = Counter.builder("user.export.rows").register(meterRegistry);
+  }
+
+  /**
+   * Checks access and the format on the calling thread; the returned body
+   * runs the query when the response is written.
+   */
+  @PreAuthorize("hasPermission(null, 'ACCESS_MANAGEMENT')")
+  public StreamingResponseBody exportUsers(String format) {
+    String resolvedFormat = format.toLowerCase(Locale.ROOT);
+    if (!DataFormat.CSV.equals(resolvedFormat) && !DataFormat.NDJSON.equals(resolvedFormat)) {
+      throw new ValidationException("Export format must be csv or ndjson");
+    }
+    boolean csv = DataFormat.CSV.equals(resolvedFormat);
+
+    return out -> {
+      long started = System.currentTimeMillis();
+      AtomicLong rows = new AtomicLong();
+      Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+      if (csv) {
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+      }
+
+      try {
+        readOnlyTransaction.executeWithoutResult(status -> userExportJdbcRepository.forEachActiveUser(user -> {
+          user.getRoles().forEach(role -> role.setRoleName(categoryCodeCache.nameOf(role.getRoleId())));
+          try {
+            writer.write(csv ? toCsv(user) : objectMapper.writeValueAsString(user));
+            writer.write('\n');
+          } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+          }
+          rows.incrementAndGet();
+        }));
+      } catch (UncheckedIOException ex) {
+        log.info("User export aborted after {} rows: {}", rows, ex.getCause().getMessage());
+        throw ex.getCause();
+      } finally {
+        exportedCounter.increment(rows.get());
+      }
+      writer.flush();
+      log.info("Exported {} users as {} in {} ms", rows, resolvedFormat, System.currentTimeMillis() - started);
+    };
+  }
+
+  private String toCsv(UserExportDTO user) {
+    return String.join(",",
+        String.valueOf(user.getUserId()),
+        CsvUtil.escape(user.getUsername()),
+        CsvUtil.escape(user.getEmail()),
+        CsvUtil.escape(user.getPhoneNumber()),
+        format(user.getRegistrationDate()),
+        format(user.getLastLogin()),
+        String.valueOf(user.isEnabled()),
+        CsvUtil.escape(user.getRoles().stream()
+            .map(role -> String.valueOf(role.getRoleId()))
+            .collect(Collectors.joining(";"))),
+        CsvUtil.escape(user.getRoles().stream()
+            .map(RoleDTO::getRoleName)
+            .map(name -> name == null ? "" : name)
+            .collect(Collectors.joining(";"))));
+  }
+
+  private String format(Timestamp timestamp) {
+    return timestamp == null ? "" : timestamp.toInstant().toString();
+  }
+}
@@ -0,0 +1,468 @@
+package com.d2y.d2yapiofficial.services;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityNotFoundException;
+import javax.validation.ConstraintViolation;
+import javax.validation.ValidationException;
+import javax.validation.Validator;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.d2y.d2yapiofficial.dto.auth.RegisterRequest;
+import com.d2y.d2yapiofficial.dto.user.UserImportJobDTO;
+import com.d2y.d2yapiofficial.models.NotificationEmail;
+import com.d2y.d2yapiofficial.models.Token;
+import com.d2y.d2yapiofficial.models.User;
+import com.d2y.d2yapiofficial.repositories.UserImportJdbcRepository;
+import com.d2y.d2yapiofficial.security.ExecutorPasswordEncoder;
+import com.d2y.d2yapiofficial.security.VerificationLinkSigner;
+import com.d2y.d2yapiofficial.utils.CsvUtil;
+import com.d2y.d2yapiofficial.utils.constants.DataFormat;
+import com.d2y.d2yapiofficial.utils.constants.DomainEventType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Imports users from a CSV (header with {@code username,email,password}) or
+ * NDJSON upload. The upload is spooled to a temporary file and read line by
+ * line in chunks of {@code user.import.batch-size}, so memory does not grow
+ * with the file. Per chunk, rows are validated like a registration, emails
+ * are de-duplicated within the chunk and against {@code users} in one query,
+ * passwords are hashed in parallel on a dedicated fork-join pool (apart from
+ * the login hashing pool), and users, verification tokens and outbox mails
+ * are written with batched inserts in one transaction. Jobs run one at a time
+ * and report their progress like bulk mail jobs.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class UserImportService {
+
+  private static final int MAX_ERRORS = 100;
+  private static final Duration VERIFICATION_VALIDITY = Duration.ofHours(24);
+
+  private final UserImportJdbcRepository userImportJdbcRepository;
+  private final PasswordEncoder passwordEncoder;
+  private final VerificationLinkSigner verificationLinkSigner;
+  private final UserSearchIndex userSearchIndex;
+  private final DomainEventPublisher domainEventPublisher;
+  private final TransactionTemplate transactionTemplate;
+  private final Validator validator;
+  private final ObjectMapper objectMapper;
+  private final MeterRegistry meterRegistry;
+
+  private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+  @Value("${verification.mode:token}")
+  private String verificationMode;
+
+  @Value("${user.import.batch-size:1000}")
+  private int batchSize;
+
+  @Value("${user.import.hashing-parallelism:0}")
+  private int hashingParallelism;
+
+  @Value("${user.import.job-retention:86400000}")
+  private long jobRetention;
+
+  @Value("${user.import.verification-delay:21600000}")
+  private long verificationDelayMillis;
+
+  private ExecutorService coordinator;
+  private ForkJoinPool hashingPool;
+  private PasswordEncoder hashingEncoder;
+  private Counter importedCounter;
+  private Counter duplicateCounter;
+  private Counter failedCounter;
+
+  @PostConstruct
+  void init() {
+    // Half the cores by default, leaving the rest to logins and requests.
+    int parallelism = hashingParallelism > 0 ? hashingParallelism
+        : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    coordinator = Executors.newSingleThreadExecutor();
+    hashingPool = new ForkJoinPool(parallelism, pool -> {
+      ForkJoinWorkerThread worker = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+      worker.setName("user-import-hashing-" + worker.getPoolIndex());
+      return worker;
+    }, null, false);
+    hashingEncoder = passwordEncoder instanceof ExecutorPasswordEncoder
+        ? ((ExecutorPasswordEncoder) passwordEncoder).getDelegate()
+        : passwordEncoder;
+    importedCounter = Counter.builder("user.import.rows").tag("result", "imported").register(meterRegistry);
+    duplicateCounter = Counter.builder("user.import.rows").tag("result", "duplicate").register(meterRegistry);
+    failedCounter = Counter.builder("user.import.rows").tag("result", "failed").register(meterRegistry);
+  }
+
+  @PreDestroy
+  void shutdown() {
+    coordinator.shutdownNow();
+    hashingPool.shutdownNow();
+  }
+
+  /**
+   * Spools the upload and queues the import. With {@code deferVerification}
+   * the verification mails are held in the outbox for
+   * {@code user.import.verification-delay} before delivery.
+   */
+  @PreAuthorize("hasPermission(null, 'ACCESS_MANAGEMENT')")
+  public UserImportJobDTO startImport(MultipartFile file, String format, boolean deferVerification)
+      throws IOException {
+    if (file.isEmpty()) {
+      throw new ValidationException("Import file is empty");
+    }
+    String resolvedFormat = resolveFormat(file, format);
+    Path spool = Files.createTempFile("user-import-", "." + resolvedFormat);
+    file.transferTo(spool);
+
+    evictFinishedJobs();
+    Job job = new Job(UUID.randomUUID().toString(), resolvedFormat, deferVerification);
+    jobs.put(job.id, job);
+    coordinator.submit(() -> run(job, spool));
+    return job.toDTO();
+  }
+
+  @PreAuthorize("hasPermission(null, 'ACCESS_MANAGEMENT')")
+  public UserImportJobDTO getJob(String jobId) {
+    Job job = jobs.get(jobId);
+    if (job == null) {
+      throw new EntityNotFoundException("User Import Job Not Found!");
+    }
+    return job.toDTO();
+  }
+
+  // Finished jobs are forgotten user.import.job-retention after they end.
+  private void evictFinishedJobs() {
+    long cutoff = System.currentTimeMillis() - jobRetention;
+    jobs.values().removeIf(job -> job.finishedAt > 0 && job.finishedAt < cutoff);
+  }
+
+  private String resolveFormat(MultipartFile file, String format) {
+    String resolved = format;
+    if (resolved == null) {
+      String name = file.getOriginalFilename() == null ? "" : file.getOriginalFilename().toLowerCase(Locale.ROOT);
+      String contentType = file.getContentType() == null ? "" : file.getContentType();
+      if (name.endsWith(".csv") || contentType.startsWith(DataFormat.CSV_CONTENT_TYPE)) {
+        resolved = DataFormat.CSV;
+      } else if (name.endsWith(".ndjson") || name.endsWith(".jsonl")
+          || contentType.startsWith(DataFormat.NDJSON_CONTENT_TYPE)) {
+        resolved = DataFormat.NDJSON;
+      }
+    }
+    resolved = resolved == null ? "" : resolved.toLowerCase(Locale.ROOT);
+    if (!DataFormat.CSV.equals(resolved) && !DataFormat.NDJSON.equals(resolved)) {
+      throw new ValidationException("Import format must be csv or ndjson");
+    }
+    return resolved;
+  }
+
+  private void run(Job job, Path spool) {
+    job.start();
+    try (BufferedReader reader = Files.newBufferedReader(spool, StandardCharsets.UTF_8)) {
+      Map<String, Integer> header = null;
+      List<Row> chunk = new ArrayList<>(batchSize);
+      long lineNumber = 0;
+      String line;
+      while ((line = reader.readLine()) != null) {
+        lineNumber++;
+        if (line.isBlank()) {
+          continue;
+        }
+        if (DataFormat.CSV.equals(job.format) && header == null) {
+          header = parseHeader(line);
+          continue;
+        }
+
+        job.processed.incrementAndGet();
+        try {
+          RegisterRequest request = DataFormat.CSV.equals(job.format) ? fromCsv(header, line) : fromJson(line);
+          chunk.add(new Row(lineNumber, request));
+        } catch (IOException | ValidationException ex) {
+          job.fail(lineNumber, ex.getMessage());
+          failedCounter.increment();
+        }
+
+        if (chunk.size() >= batchSize) {
+          importChunk(job, chunk);
+          chunk = new ArrayList<>(batchSize);
+        }
+      }
+      if (!chunk.isEmpty()) {
+        importChunk(job, chunk);
+      }
+      job.finish("COMPLETED");
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      job.finish("CANCELLED");
+    } catch (IOException | ExecutionException | RuntimeException ex) {
+      log.error("User import job {} failed", job.id, ex);
+      job.errors.add(ex.getMessage());
+      job.finish("FAILED");
+    } finally {
+      deleteSpool(spool);
+    }
+
+    if (job.imported.get() > 0) {
+      userSearchIndex.requestRebuild();
+    }
+    log.info("User import job {} {}: {} imported, {} duplicate(s), {} failed", job.id, job.status,
+        job.imported, job.duplicates, job.failed);
+  }
+
+  private Map<String, Integer> parseHeader(String line) {
+    List<String> columns = CsvUtil.parseLine(line);
+    Map<String, Integer> header = new HashMap<>();
+    for (int i = 0; i < columns.size(); i++) {
+      header.put(columns.get(i).trim().toLowerCase(Locale.ROOT), i);
+    }
+    for (String required : new String[] { "username", "email", "password" }) {
+      if (!header.containsKey(required)) {
+        throw new ValidationException("CSV header is missing the " + required + " column");
+      }
+    }
+    return header;
+  }
+
+  private RegisterRequest fromCsv(Map<String, Integer> header, String line) {
+    List<String> fields = CsvUtil.parseLine(line);
+    String username = field(fields, header.get("username"));
+    String email = field(fields, header.get("email"));
+    return new RegisterRequest(username == null ? null : username.trim(), field(fields, header.get("password")),
+        email == null ? null : email.trim());
+  }
+
+  private String field(List<String> fields, int index) {
+    return index < fields.size() ? fields.get(index) : null;
+  }
+
+  private RegisterRequest fromJson(String line) throws IOException {
+    RegisterRequest request = objectMapper.readValue(line, RegisterRequest.class);
+    if (request == null) {
+      throw new ValidationException("Expected a JSON object");
+    }
+    return request;
+  }
+
+  private void importChunk(Job job, List<Row> chunk) throws InterruptedException, ExecutionException {
+    List<Row> rows = new ArrayList<>(chunk.size());
+    Set<String> emails = new HashSet<>();
+    for (Row row : chunk) {
+      String error = validate(row.request);
+      if (error != null) {
+        job.fail(row.line, error);
+        failedCounter.increment();
+      } else if (!emails.add(row.request.getEmail())) {
+        job.duplicates.incrementAndGet();
+        duplicateCounter.increment();
+      } else {
+        rows.add(row);
+      }
+    }
+
+    Set<String> existing = userImportJdbcRepository.findExistingEmails(emails);
+    rows.removeIf(row -> {
+      if (existing.contains(row.request.getEmail())) {
+        job.duplicates.incrementAndGet();
+        duplicateCounter.increment();
+        return true;
+      }
+      return false;
+    });
+    if (rows.isEmpty()) {
+      return;
+    }
+
+    List<String> hashes = hashingPool.submit(() -> rows.parallelStream()
+        .map(row -> hashingEncoder.encode(row.request.getPassword()))
+        .collect(Collectors.toList())).get();
+
+    Timestamp now = new Timestamp(System.currentTimeMillis());
+    List<User> users = new ArrayList<>(rows.size());
+    for (int i = 0; i < rows.size(); i++) {
+      RegisterRequest request = rows.get(i).request;
+      users.add(User.builder()
+          .username(request.getUsername())
+          .email(request.getEmail())
+          .password(hashes.get(i))
+          .registrationDate(now)
+          .createdOn(now)
+          .updatedOn(now)
+          .active(true)
+          .enabled(false)
+          .build());
+    }
+
+    transactionTemplate.executeWithoutResult(status -> {
+      userImportJdbcRepository.insertUsers(users);
+      enqueueVerification(users, job.deferVerification, now);
+      userSearchIndex.putAll(users);
+      users.forEach(this::publishRegistered);
+    });
+    job.imported.addAndGet(users.size());
+    importedCounter.increment(users.size());
+  }
+
+  private String validate(RegisterRequest request) {
+    Set<ConstraintViolation<RegisterRequest>> violations = validator.validate(request);
+    if (!violations.isEmpty()) {
+      return violations.iterator().next().getMessage();
+    }
+    if (!AuthService.isStrongPassword(request.getPassword())) {
+      return AuthService.WEAK_PASSWORD;
+    }
+    return null;
+  }
+
+  private void enqueueVerification(List<User> users, boolean defer, Timestamp now) {
+    Timestamp sendAt = defer ? new Timestamp(now.getTime() + verificationDelayMillis) : now;
+    Instant expiry = sendAt.toInstant().plus(VERIFICATION_VALIDITY);
+    List<Token> tokens = new ArrayList<>();
+    List<NotificationEmail> mails = new ArrayList<>(users.size());
+    for (User user : users) {
+      String token;
+      if (VerificationLinkSigner.MODE_SIGNED.equals(verificationMode)) {
+        token = verificationLinkSigner.sign(user.getUserId(), expiry);
+      } else {
+        token = UUID.randomUUID().toString();
+        tokens.add(Token.builder()
+            .token(token)
+            .user(user)
+            .expiryDate(Timestamp.from(expiry))
+            .expired(false)
+            .createdOn(now)
+            .build());
+      }
+
+      NotificationEmail mail = new NotificationEmail();
+      mail.setRecipient(user.getEmail());
+      mail.setSubject("Welcome " + user.getUsername());
+      mail.setUsername(user.getUsername());
+      mail.setVerificationUrl(AuthService.VERIFICATION_URL + token);
+      mails.add(mail);
+    }
+
+    if (!tokens.isEmpty()) {
+      userImportJdbcRepository.insertTokens(tokens);
+    }
+    userImportJdbcRepository.insertMails(mails, sendAt, now);
+  }
+
+  private void publishRegistered(User user) {
+    Map<String, Object> data = new HashMap<>();
+    data.put("email", user.getEmail());
+    data.put("username", user.getUsername());
+    domainEventPublisher.publish(DomainEventType.USER_REGISTERED, DomainEventType.AGGREGATE_USER, user.getUserId(),
+        data);
+  }
+
+  private void deleteSpool(Path spool) {
+    try {
+      Files.deleteIfExists(spool);
+    } catch (IOException ex) {
+      log.warn("Could not delete import spool {}: {}", spool, ex.getMessage());
+    }
+  }
+
+  private static class Row {
+    private final long line;
+    private final RegisterRequest request;
+
+    Row(long line, RegisterRequest request) {
+      this.line = line;
+      this.request = request;
+    }
+  }
+
+  private static class Job {
+    private final String id;
+    private final String format;
+    private final boolean deferVerification;
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong imported = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final List<String> errors = Collections.synchronizedList(new ArrayList<>());
+    private volatile String status = "QUEUED";
+    private volatile long startedAt;
+    private volatile long finishedAt;
+
+    Job(String id, String format, boolean deferVerification) {
+      this.id = id;
+      this.format = format;
+      this.deferVerification = deferVerification;
+    }
+
+    void start() {
+      this.startedAt = System.currentTimeMillis();
+      this.status = "RUNNING";
+    }
+
+    void fail(long line, String error) {
+      failed.incrementAndGet();
+      if (errors.size() < MAX_ERRORS) {
+        errors.add("Line " + line + ": " + error);
+      }
+    }
+
+    void finish(String status) {
+      this.finishedAt = System.currentTimeMillis();
+      this.status = status;
+    }
+
+    UserImportJobDTO toDTO() {
+      long end = finishedAt > 0 ? finishedAt : System.currentTimeMillis();
+      double seconds = startedAt > 0 ? Math.max(1, end - startedAt) / 1000.0 : 0;
+      return UserImportJobDTO.builder()
+          .jobId(id)
+          .format(format)
+          .status(status)
+          .verificationDeferred(deferVerification)
+          .processed(processed.get())
+          .imported(imported.get())
+          .duplicates(duplicates.get())
+          .failed(failed.get())
+          .rowsPerSecond(seconds > 0 ? processed.get() / seconds : 0)
+          .errors(new ArrayList<>(errors))
+          .startedOn(startedAt > 0 ? new Timestamp(startedAt) : null)
+          .finishedOn(finishedAt > 0 ? new Timestamp(finishedAt) : null)
+          .build();
+    }
+  }
+}
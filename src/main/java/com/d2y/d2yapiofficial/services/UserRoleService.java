@@ -2,11 +2,17 @@ package com.d2y.d2yapiofficial.services;
 
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import javax.persistence.EntityNotFoundException;
@@ -14,26 +20,39 @@ import javax.transaction.Transactional;
 import javax.validation.ConstraintViolation;
 import javax.validation.ValidationException;
 import javax.validation.Validator;
-import javax.ws.rs.ForbiddenException;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 
+import com.d2y.d2yapiofficial.dto.page.CursorPage;
 import com.d2y.d2yapiofficial.dto.role.AddUserRoleDTO;
+import com.d2y.d2yapiofficial.dto.role.BulkAddUserRoleDTO;
+import com.d2y.d2yapiofficial.dto.role.BulkUserRoleResultDTO;
 import com.d2y.d2yapiofficial.dto.role.DetailRoleDTO;
 import com.d2y.d2yapiofficial.dto.role.DetailUserRoleDTO;
 import com.d2y.d2yapiofficial.dto.role.ResponseAddUserRoleDTO;
 import com.d2y.d2yapiofficial.dto.role.ResponseUpdateUserRoleDTO;
 import com.d2y.d2yapiofficial.dto.role.UpdateUserRoleDTO;
+import com.d2y.d2yapiofficial.exceptions.UnauthorizedException;
 import com.d2y.d2yapiofficial.models.CategoryCode;
 import com.d2y.d2yapiofficial.models.User;
 import com.d2y.d2yapiofficial.models.UserRole;
 import com.d2y.d2yapiofficial.repositories.UserRepository;
+import com.d2y.d2yapiofficial.repositories.UserRoleJdbcRepository;
 import com.d2y.d2yapiofficial.repositories.UserRoleRepository;
+import com.d2y.d2yapiofficial.security.AuthorizationSnapshotCache;
+import com.d2y.d2yapiofficial.security.IdentityContext;
 import com.d2y.d2yapiofficial.security.JwtProvider;
+import com.d2y.d2yapiofficial.utils.BatchLoader;
+import com.d2y.d2yapiofficial.utils.CursorCodec;
 import com.d2y.d2yapiofficial.utils.constants.ConstantMessage;
+import com.d2y.d2yapiofficial.utils.constants.DomainEventType;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -49,31 +68,68 @@ public class UserRoleService {
   private final TimestampService timestampService;
   private final Validator validator;
   private final JwtProvider jwtProvider;
+  private final AuthorizationSnapshotCache authorizationSnapshotCache;
+  private final IdentityContext identityContext;
+  private final DomainEventPublisher domainEventPublisher;
+  private final CategoryCodeCache categoryCodeCache;
+  private final UserRoleJdbcRepository userRoleJdbcRepository;
+
+  @Value("${user-role.bulk.max-items:10000}")
+  private int bulkMaxItems;
 
   public Page<DetailUserRoleDTO> convertToRolePrivilegeDTO(Pageable pageable, String search) {
-    Page<Map<String, Object>> userRolePage = userRoleRepository.findAllUserRoleId(pageable, search.toLowerCase());
+    Page<Map<String, Object>> userRolePage = userRoleRepository.findAllUserRoleId(pageable,
+        search == null ? "" : search.toLowerCase(Locale.ROOT));
 
-    return userRolePage.map(userRoleMap -> {
-      String test = Objects.toString(userRoleMap.get("user_id"));
-      Integer userId = Integer.parseInt(test);
-      return convertToDetailUserRoleDTO(userId);
-    });
+    List<Long> userIds = userRolePage.getContent().stream()
+        .map(userRoleMap -> Long.valueOf(Objects.toString(userRoleMap.get("user_id"))))
+        .collect(Collectors.toList());
+    return new PageImpl<>(convertToDetailUserRoleDTOs(userIds), pageable, userRolePage.getTotalElements());
   }
 
-  private DetailUserRoleDTO convertToDetailUserRoleDTO(Integer userId) {
-    User users = userRepository.findById((long) userId)
-        .orElseThrow(() -> new EntityNotFoundException("Users Not Found!"));
-    List<UserRole> listUserRoles = userRoleRepository.findByUserIdList(users);
-    List<DetailRoleDTO> usersDTOs = listUserRoles.stream().map(this::convertUserRoleDTO).collect(Collectors.toList());
-    return DetailUserRoleDTO.builder()
-        .userRoleId(users.getUserId())
-        .userId(users.getUserId())
-        .username(users.getUsername())
-        .listRole(usersDTOs)
-        .build();
+  // Keyset walk over user_id; the cursor's sort key is the id itself.
+  public CursorPage<DetailUserRoleDTO> getUserRolesAfter(String cursor, Pageable pageable, String search) {
+    Sort.Order order = pageable.getSort().getOrderFor("userId");
+    if ((pageable.getSort().isSorted() && order == null) || (order != null && order.isDescending())) {
+      throw new ValidationException("Cursor pagination only supports ascending sort by userId.");
+    }
+
+    int size = pageable.getPageSize();
+    CursorCodec.Cursor after = CursorCodec.decode(cursor, "userId");
+    List<Long> userIds = userRoleRepository.findUserRoleIdsAfter(
+        search == null ? "" : search.toLowerCase(Locale.ROOT), after.getId(), size + 1).stream()
+        .map(row -> Long.valueOf(Objects.toString(row.get("user_id"))))
+        .collect(Collectors.toList());
+
+    CursorPage<Long> page = CursorPage.of(userIds, size, userId -> CursorCodec.encode("userId", "", userId));
+    return new CursorPage<>(convertToDetailUserRoleDTOs(page.getContent()), page.getNextCursor());
+  }
+
+  // One query for the users and one for their roles, whatever the page size.
+  private List<DetailUserRoleDTO> convertToDetailUserRoleDTOs(List<Long> userIds) {
+    Map<Long, User> usersById = BatchLoader.loadUnique(userIds, userRepository::findAllById, User::getUserId);
+    Map<Long, List<UserRole>> userRoles = BatchLoader.loadGrouped(userIds, userRoleRepository::findActiveByUserIds,
+        userRole -> userRole.getUserId().getUserId());
+
+    return userIds.stream().map(userId -> {
+      User users = usersById.get(userId);
+      if (users == null) {
+        throw new EntityNotFoundException("Users Not Found!");
+      }
+      List<DetailRoleDTO> usersDTOs = userRoles.getOrDefault(userId, Collections.emptyList()).stream()
+          .map(this::convertUserRoleDTO)
+          .collect(Collectors.toList());
+      return DetailUserRoleDTO.builder()
+          .userRoleId(users.getUserId())
+          .userId(users.getUserId())
+          .username(users.getUsername())
+          .listRole(usersDTOs)
+          .build();
+    }).collect(Collectors.toList());
   }
 
   @Transactional
+  @PreAuthorize("hasPermission(null, 'ACCESS_MANAGEMENT')")
   public UserRole addUserRole(AddUserRoleDTO userRoleDto) throws Exception {
     try {
       Set<ConstraintViolation<AddUserRoleDTO>> violations = validator.validate(userRoleDto);
@@ -83,39 +139,36 @@ public class UserRoleService {
             .collect(Collectors.toList());
         throw new ValidationException(errors.get(0));
       }
+      Long createdBy = getCallerId();
       User isUserExist = getService.getUser(userRoleDto.getUserId(), ConstantMessage.USER_NOT_FOUND);
-      User createdBy = getService.getUser(userRoleDto.getCreatedBy(), ConstantMessage.USER_NOT_FOUND);
 
-      List<Boolean> isPermission = checkPermission(createdBy.getUserId());
       List<UserRole> userExist = userRoleRepository.findByUserIdAndActive(isUserExist);
       UserRole userRole = new UserRole();
 
-      if (isPermission.contains(true)) {
-        if (userExist.isEmpty()) {
-          for (Long roleId : userRoleDto.getRoleId()) {
-            CategoryCode isRoleExist = getService.getCategoryCode(roleId, ConstantMessage.ROLE_NOT_FOUND);
-            Optional<UserRole> isUserRoleExist = userRoleRepository.findByUserRoleIdAndUserId(isRoleExist, isUserExist);
-            if (!isUserRoleExist.isPresent()) {
-              userRole = UserRole.builder()
-                  .userId(isUserExist)
-                  .roleId(isRoleExist)
-                  .active(true)
-                  .updatedOn(timestampService.getUtcTimestamp())
-                  .updatedBy(userRoleDto.getCreatedBy())
-                  .createdBy(userRoleDto.getCreatedBy())
-                  .createdOn(timestampService.getUtcTimestamp())
-                  .build();
-              userRoleRepository.save(userRole);
-            } else {
-              isUserRoleExist.get().setActive(true);
-              userRole = isUserRoleExist.get();
-            }
+      if (userExist.isEmpty()) {
+        for (Long roleId : userRoleDto.getRoleId()) {
+          CategoryCode isRoleExist = getService.getCategoryCode(roleId, ConstantMessage.ROLE_NOT_FOUND);
+          Optional<UserRole> isUserRoleExist = userRoleRepository.findByUserRoleIdAndUserId(isRoleExist, isUserExist);
+          if (!isUserRoleExist.isPresent()) {
+            userRole = UserRole.builder()
+                .userId(isUserExist)
+                .roleId(isRoleExist)
+                .active(true)
+                .updatedOn(timestampService.getUtcTimestamp())
+                .updatedBy(createdBy)
+                .createdBy(createdBy)
+                .createdOn(timestampService.getUtcTimestamp())
+                .build();
+            userRoleRepository.save(userRole);
+          } else {
+            isUserRoleExist.get().setActive(true);
+            userRole = isUserRoleExist.get();
           }
-        } else {
-          throw new ValidationException("User Role Data Already Exist!");
         }
+        authorizationSnapshotCache.evictUser(isUserExist.getUserId());
+        publishRolesChanged(isUserExist.getUserId(), userRoleDto.getRoleId());
       } else {
-        throw new ForbiddenException("You Don't Have Permission To Add UserRole!");
+        throw new ValidationException("User Role Data Already Exist!");
       }
       return userRole;
     } catch (Exception ex) {
@@ -125,6 +178,94 @@ public class UserRoleService {
     }
   }
 
+  /**
+   * Bulk variant of {@link #addUserRole}: every referenced user and role is
+   * validated with set lookups up front and the rows are written with batched
+   * JDBC statements. Items are judged independently and reported one by one;
+   * a user that already has active roles is skipped, as the single add would
+   * reject it. The rows are attributed to the authenticated caller.
+   */
+  @Transactional
+  @PreAuthorize("hasPermission(null, 'ACCESS_MANAGEMENT')")
+  public List<BulkUserRoleResultDTO> addUserRoles(BulkAddUserRoleDTO bulkAddUserRoleDTO) {
+    getService.validate(bulkAddUserRoleDTO);
+    List<AddUserRoleDTO> items = bulkAddUserRoleDTO.getItems();
+    if (items.size() > bulkMaxItems) {
+      throw new ValidationException("A bulk request can assign roles to at most " + bulkMaxItems + " users.");
+    }
+
+    Set<Long> requestedUserIds = items.stream()
+        .map(AddUserRoleDTO::getUserId)
+        .filter(Objects::nonNull)
+        .collect(Collectors.toSet());
+    Set<Long> activeUserIds = BatchLoader.loadUnique(requestedUserIds, userRepository::findActiveIds,
+        Function.identity()).keySet();
+    Map<Long, Map<Long, Boolean>> assignments = activeUserIds.isEmpty()
+        ? Collections.emptyMap()
+        : userRoleJdbcRepository.findAssignments(activeUserIds);
+    Map<Long, Boolean> knownRoles = new HashMap<>();
+
+    List<BulkUserRoleResultDTO> results = new ArrayList<>(items.size());
+    List<Long[]> inserts = new ArrayList<>();
+    List<Long[]> reactivations = new ArrayList<>();
+    Set<Long> seenUserIds = new HashSet<>();
+    for (AddUserRoleDTO item : items) {
+      Long userId = item.getUserId();
+      List<Long> roleIds = item.getRoleId() == null
+          ? Collections.emptyList()
+          : new ArrayList<>(new LinkedHashSet<>(item.getRoleId()));
+      String failure = null;
+      if (userId == null || roleIds.isEmpty()) {
+        failure = userId == null ? "Please input User" : "Please input Role";
+      } else if (!activeUserIds.contains(userId)) {
+        failure = ConstantMessage.USER_NOT_FOUND;
+      } else if (!seenUserIds.add(userId)) {
+        failure = "Duplicate User in request.";
+      } else if (!roleIds.stream().allMatch(roleId -> knownRoles.computeIfAbsent(roleId,
+          id -> categoryCodeCache.find(id).isPresent()))) {
+        failure = ConstantMessage.ROLE_NOT_FOUND;
+      }
+      if (failure != null) {
+        results.add(bulkResult(userId, roleIds, BulkUserRoleResultDTO.FAILED, failure));
+        continue;
+      }
+
+      Map<Long, Boolean> existing = assignments.getOrDefault(userId, Collections.emptyMap());
+      if (existing.containsValue(true)) {
+        results.add(bulkResult(userId, roleIds, BulkUserRoleResultDTO.SKIPPED, "User Role Data Already Exist!"));
+        continue;
+      }
+      for (Long roleId : roleIds) {
+        (existing.containsKey(roleId) ? reactivations : inserts).add(new Long[] { userId, roleId });
+      }
+      results.add(bulkResult(userId, roleIds, BulkUserRoleResultDTO.CREATED, null));
+    }
+
+    Long createdBy = getCallerId();
+    Timestamp now = timestampService.getUtcTimestamp();
+    userRoleJdbcRepository.upsertAssignments(inserts, createdBy, now);
+    userRoleJdbcRepository.reactivateAssignments(reactivations, createdBy, now);
+
+    results.stream()
+        .filter(result -> BulkUserRoleResultDTO.CREATED.equals(result.getStatus()))
+        .forEach(result -> {
+          authorizationSnapshotCache.evictUser(result.getUserId());
+          publishRolesChanged(result.getUserId(), result.getRoleId());
+        });
+    log.info("Bulk role assignment: {} items, {} inserted and {} re-activated rows", items.size(), inserts.size(),
+        reactivations.size());
+    return results;
+  }
+
+  private BulkUserRoleResultDTO bulkResult(Long userId, List<Long> roleIds, String status, String message) {
+    return BulkUserRoleResultDTO.builder()
+        .userId(userId)
+        .roleId(roleIds)
+        .status(status)
+        .message(message)
+        .build();
+  }
+
   public ResponseAddUserRoleDTO convertAddUserRoleDTO(UserRole userRole) {
     List<UserRole> userRoles = userRoleRepository.findByIdAndActiveList(userRole.getUserId());
     List<DetailRoleDTO> userRoleDTOs = userRoles.stream().map(this::convertUserRoleDTO).collect(Collectors.toList());
@@ -150,8 +291,14 @@ public class UserRoleService {
         .build();
   }
 
+  /**
+   * Replaces the user's active roles with the requested set. The change is
+   * computed against the current rows and written with at most one bulk
+   * deactivate, one bulk re-activate and one batched upsert.
+   */
   @Transactional
-  public List<UserRole> updateUserRole(Long id, UpdateUserRoleDTO userRoleDTO) throws Exception {
+  @PreAuthorize("hasPermission(null, 'ACCESS_MANAGEMENT')")
+  public void updateUserRole(Long id, UpdateUserRoleDTO userRoleDTO) throws Exception {
     try {
       Set<ConstraintViolation<UpdateUserRoleDTO>> violations = validator.validate(userRoleDTO);
       if (!violations.isEmpty()) {
@@ -160,53 +307,34 @@ public class UserRoleService {
             .collect(Collectors.toList());
         throw new ValidationException(errors.get(0));
       }
-      User users = getService.getUser(id, ConstantMessage.USER_NOT_FOUND);
-      List<UserRole> userRole = userRoleRepository.findByIdAndActiveList(users);
-      User updatedBy = getService.getUser(userRoleDTO.getUpdatedBy(), ConstantMessage.USER_NOT_FOUND);
-      List<Boolean> checkPermission = checkPermission(updatedBy.getUserId());
-      if (checkPermission.contains(true)) {
-        for (UserRole uRole : userRole) {
-          uRole.setActive(false);
-        }
-        userRoleRepository.saveAll(userRole);
-        checkUserRole(id, userRole, userRoleDTO);
-      } else {
-        throw new ForbiddenException("You Don't Have Permission To Update UserRole!");
+      Long updatedBy = getCallerId();
+      getService.getUser(id, ConstantMessage.USER_NOT_FOUND);
+      Set<Long> desired = new LinkedHashSet<>(userRoleDTO.getRoleId());
+      for (Long roleId : desired) {
+        categoryCodeCache.get(roleId, ConstantMessage.ROLE_NOT_FOUND);
       }
-      return userRole;
-    } catch (Exception ex) {
-      log.info(ex.getMessage());
-      ex.printStackTrace();
-      throw ex;
-    }
-  }
 
-  @Transactional
-  public void checkUserRole(Long id, List<UserRole> userRoles, UpdateUserRoleDTO userRoleDTO) {
-    try {
-      for (int i = 0; i < userRoleDTO.getRoleId().size(); i++) {
-        User users = getService.getUser(id, ConstantMessage.USER_NOT_FOUND);
-        CategoryCode userRoleId = getService.getCategoryCode(userRoleDTO.getRoleId().get(i),
-            ConstantMessage.ROLE_NOT_FOUND);
-        Optional<UserRole> uOptional = userRoleRepository.findByUserRoleIdAndUserId(userRoleId, users);
-        if (uOptional.isPresent()) {
-          uOptional.get().setActive(true);
-          uOptional.get().setUpdatedOn(new Timestamp(System.currentTimeMillis()));
-          uOptional.get().setUpdatedBy(userRoleDTO.getUpdatedBy());
-          userRoleRepository.save(uOptional.get());
-        } else {
-          UserRole userRole = UserRole.builder()
-              .userId(users)
-              .roleId(userRoleId)
-              .active(true)
-              .createdBy(userRoleDTO.getUpdatedBy())
-              .createdOn(timestampService.getUtcTimestamp())
-              .updatedOn(timestampService.getUtcTimestamp())
-              .updatedBy(userRoleDTO.getUpdatedBy())
-              .build();
-          userRoleRepository.save(userRole);
-        }
-      }
+      Map<Long, Boolean> current = userRoleJdbcRepository.findAssignments(Collections.singletonList(id))
+          .getOrDefault(id, Collections.emptyMap());
+      List<Long> deactivate = current.entrySet().stream()
+          .filter(role -> role.getValue() && !desired.contains(role.getKey()))
+          .map(Map.Entry::getKey)
+          .collect(Collectors.toList());
+      List<Long> reactivate = desired.stream()
+          .filter(roleId -> Boolean.FALSE.equals(current.get(roleId)))
+          .collect(Collectors.toList());
+      List<Long[]> inserts = desired.stream()
+          .filter(roleId -> !current.containsKey(roleId))
+          .map(roleId -> new Long[] { id, roleId })
+          .collect(Collectors.toList());
+
+      Timestamp now = timestampService.getUtcTimestamp();
+      userRoleJdbcRepository.setActive(id, deactivate, false, updatedBy, now);
+      userRoleJdbcRepository.setActive(id, reactivate, true, updatedBy, now);
+      userRoleJdbcRepository.upsertAssignments(inserts, updatedBy, now);
+
+      authorizationSnapshotCache.evictUser(id);
+      publishRolesChanged(id, userRoleDTO.getRoleId());
     } catch (Exception ex) {
       log.info(ex.getMessage());
       ex.printStackTrace();
@@ -215,25 +343,17 @@ public class UserRoleService {
   }
 
   @Transactional
+  @PreAuthorize("hasPermission(null, 'ACCESS_MANAGEMENT')")
   public void deleteRoleUser(String token, Long id) {
     try {
-      String email = jwtProvider.getEmailFromToken(token);
+      String email = identityContext.getCallerEmail().orElseGet(() -> jwtProvider.getEmailFromToken(token));
       User updatedBy = getService.getUserByEmail(email, ConstantMessage.USER_NOT_FOUND);
       User users = getService.getUser(id, ConstantMessage.USER_NOT_FOUND);
 
-      List<UserRole> userRoles = userRoleRepository.findByIdAndActiveList(users);
-      List<Boolean> checkPermission = checkPermission(updatedBy.getUserId());
-
-      if (checkPermission.contains(true)) {
-        for (UserRole uRole : userRoles) {
-          uRole.setActive(false);
-          uRole.setUpdatedBy(updatedBy.getUserId());
-          uRole.setUpdatedOn(timestampService.getUtcTimestamp());
-        }
-        userRoleRepository.saveAll(userRoles);
-      } else {
-        throw new ForbiddenException("You Don't Have Permission To Delete UserRole!");
-      }
+      userRoleJdbcRepository.deactivateAll(users.getUserId(), updatedBy.getUserId(),
+          timestampService.getUtcTimestamp());
+      authorizationSnapshotCache.evictUser(users.getUserId());
+      publishRolesChanged(users.getUserId(), Collections.emptyList());
     } catch (Exception ex) {
       log.info(ex.getMessage());
       ex.printStackTrace();
@@ -257,23 +377,24 @@ public class UserRoleService {
     return DetailRoleDTO.builder()
         .userRoleId(userRole.getUserRoleId())
         .roleId(userRole.getRoleId().getCategoryCodeId())
-        .role(userRole.getRoleId().getCodeName())
+        .role(categoryCodeCache.nameOf(userRole.getRoleId().getCategoryCodeId()))
         .active(userRole.isActive())
         .build();
   }
 
-  private List<Boolean> checkPermission(Long userId) {
-    User user = getUser(userId, ConstantMessage.USER_NOT_FOUND);
-    List<UserRole> listUserRole = userRoleRepository.findByIdAndActiveList(user);
-    List<Boolean> isPermission = new ArrayList<>();
-    for (UserRole uRole : listUserRole) {
-      isPermission.add(userRoleRepository.isPermissionForUserRoleManipulation(uRole.getRoleId().getCategoryCodeId()));
-    }
-    return isPermission;
+  private void publishRolesChanged(Long userId, List<Long> roleIds) {
+    domainEventPublisher.publish(DomainEventType.USER_ROLES_CHANGED, DomainEventType.AGGREGATE_USER, userId,
+        Map.of("roleIds", roleIds));
   }
 
   public User getUser(Long id, String message) {
     return userRepository.findByIdAndActive(id).orElseThrow(() -> new EntityNotFoundException(message));
   }
 
+  // Audit columns always name the authenticated caller, never a client-supplied id.
+  private Long getCallerId() {
+    return identityContext.getCaller()
+        .map(User::getUserId)
+        .orElseThrow(UnauthorizedException::new);
+  }
 }
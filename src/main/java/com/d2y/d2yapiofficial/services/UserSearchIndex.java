@@ -0,0 +1,440 @@
+package com.d2y.d2yapiofficial.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import com.d2y.d2yapiofficial.dto.user.UserContactDTO;
+import com.d2y.d2yapiofficial.models.User;
+import com.d2y.d2yapiofficial.ol.dto.UserListDTO;
+import com.d2y.d2yapiofficial.repositories.UserRepository;
+import com.d2y.d2yapiofficial.utils.TransactionUtil;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-memory search index over the lowercased username and email of active
+ * users. Every trigram, plus the first one and two characters of each field,
+ * maps to a sorted {@code long[]} of user ids. A lookup intersects the
+ * postings of the query's grams, smallest first, and verifies the survivors
+ * against the stored fields, so postings may safely contain stale ids after
+ * an update or removal; the nightly rebuild drops them.
+ *
+ * <p>
+ * Queries of three or more characters use substring semantics (like the
+ * {@code LIKE %search%} listing query); shorter typeahead queries match
+ * prefixes. Until the bootstrap has finished the index reports itself as not
+ * ready and callers fall back to the database.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class UserSearchIndex {
+
+  private static final String CACHE_NAME = "userSearch";
+  private static final String REBUILD_KEY = "*";
+  private static final int GRAM = 3;
+  private static final long PREFIX_FLAG = 1L << 48;
+
+  private final UserRepository userRepository;
+  private final CacheInvalidationBus cacheInvalidationBus;
+  private final MeterRegistry meterRegistry;
+
+  private volatile Index index = new Index();
+  private volatile Set<Long> touchedDuringRebuild;
+  // Orders single-user writes against the swap to a rebuilt index, so a write
+  // lands in the new index or is replayed onto it, never lost with the old one.
+  private final Object swapLock = new Object();
+  private volatile boolean ready;
+  private final AtomicBoolean rebuilding = new AtomicBoolean();
+  private final AtomicBoolean rebuildRequested = new AtomicBoolean();
+  // Rebuilds asked for by other nodes; keeps them off the invalidation listener.
+  private final ExecutorService remoteRebuilds = Executors.newSingleThreadExecutor(
+      new CustomizableThreadFactory("user-search-rebuild-"));
+
+  @Value("${user.search-index.enabled:true}")
+  private boolean enabled;
+
+  @Value("${user.search-index.page-size:5000}")
+  private int pageSize;
+
+  private Timer lookups;
+
+  @PostConstruct
+  void init() {
+    lookups = Timer.builder("user.search.index.lookup").register(meterRegistry);
+    Gauge.builder("user.search.index.size", this, searchIndex -> searchIndex.index.entries.size())
+        .register(meterRegistry);
+    cacheInvalidationBus.register(CACHE_NAME, this::onRemoteInvalidation);
+  }
+
+  @PreDestroy
+  void shutdown() {
+    remoteRebuilds.shutdownNow();
+  }
+
+  public boolean isReady() {
+    return ready;
+  }
+
+  @Async
+  @EventListener(ApplicationReadyEvent.class)
+  public void bootstrap() {
+    rebuild();
+  }
+
+  /**
+   * Single-flight: a rebuild requested while one is running (bootstrap, the
+   * nightly schedule, another node) does not start a second one but makes
+   * the running one go round once more when it is done.
+   */
+  @Scheduled(cron = "${user.search-index.rebuild-cron:0 30 3 * * ?}")
+  public void rebuild() {
+    if (!enabled) {
+      return;
+    }
+
+    rebuildRequested.set(true);
+    while (rebuildRequested.get() && rebuilding.compareAndSet(false, true)) {
+      try {
+        rebuildRequested.set(false);
+        rebuildOnce();
+      } finally {
+        touchedDuringRebuild = null;
+        rebuilding.set(false);
+      }
+    }
+  }
+
+  private void rebuildOnce() {
+    long started = System.currentTimeMillis();
+    Set<Long> touched = ConcurrentHashMap.newKeySet();
+    synchronized (swapLock) {
+      touchedDuringRebuild = touched;
+    }
+    Index rebuilt = new Index();
+    long afterId = 0;
+    List<UserContactDTO> page;
+    do {
+      page = userRepository.findSearchEntriesAfter(afterId, PageRequest.of(0, pageSize));
+      for (UserContactDTO user : page) {
+        rebuilt.put(user.getUserId(), user.getUsername(), user.getEmail());
+        afterId = user.getUserId();
+      }
+    } while (page.size() == pageSize);
+
+    synchronized (swapLock) {
+      index = rebuilt;
+      touchedDuringRebuild = null;
+    }
+    touched.forEach(this::refresh);
+    ready = true;
+    log.info("User search index built with {} users in {} ms", rebuilt.entries.size(),
+        System.currentTimeMillis() - started);
+  }
+
+  /**
+   * Indexes (or re-indexes) the user once the current transaction commits,
+   * here and on the other nodes.
+   */
+  public void put(User user) {
+    Long userId = user.getUserId();
+    String username = user.getUsername();
+    String email = user.getEmail();
+    boolean active = user.isActive();
+    TransactionUtil.afterCommit(() -> {
+      if (active) {
+        putLocal(userId, username, email);
+      } else {
+        removeLocal(userId);
+      }
+      cacheInvalidationBus.publish(CACHE_NAME, String.valueOf(userId));
+    });
+  }
+
+  /**
+   * Indexes users created in bulk once the current transaction commits, on
+   * this node only; call {@link #requestRebuild()} when the batch is done so
+   * the other nodes rebuild once instead of refreshing user by user.
+   */
+  public void putAll(List<User> users) {
+    List<UserContactDTO> entries = users.stream()
+        .filter(User::isActive)
+        .map(user -> UserContactDTO.builder()
+            .userId(user.getUserId())
+            .username(user.getUsername())
+            .email(user.getEmail())
+            .build())
+        .collect(Collectors.toList());
+    TransactionUtil.afterCommit(
+        () -> entries.forEach(entry -> putLocal(entry.getUserId(), entry.getUsername(), entry.getEmail())));
+  }
+
+  public void requestRebuild() {
+    cacheInvalidationBus.publish(CACHE_NAME, REBUILD_KEY);
+  }
+
+  public void remove(Long userId) {
+    TransactionUtil.afterCommit(() -> {
+      removeLocal(userId);
+      cacheInvalidationBus.publish(CACHE_NAME, String.valueOf(userId));
+    });
+  }
+
+  /**
+   * Ids, ascending, of active users whose username or email contains the
+   * (lowercase) term; empty when the index cannot answer and the caller should
+   * query the database.
+   */
+  public Optional<long[]> search(String term) {
+    if (!ready || term.length() < GRAM) {
+      return Optional.empty();
+    }
+    return Optional.of(lookups.record(() -> index.match(term, Integer.MAX_VALUE)));
+  }
+
+  public Optional<List<UserListDTO>> typeahead(String term, int limit) {
+    if (!ready || term.isEmpty()) {
+      return Optional.empty();
+    }
+    Index current = index;
+    long[] ids = lookups.record(() -> current.match(term, limit));
+    List<UserListDTO> result = new ArrayList<>(ids.length);
+    for (long id : ids) {
+      Entry entry = current.entries.get(id);
+      if (entry != null) {
+        result.add(UserListDTO.builder().userId(id).username(entry.username).build());
+      }
+    }
+    return Optional.of(result);
+  }
+
+  private void onRemoteInvalidation(String key) {
+    if (REBUILD_KEY.equals(key)) {
+      remoteRebuilds.execute(this::rebuild);
+    } else {
+      refresh(Long.valueOf(key));
+    }
+  }
+
+  private void refresh(Long userId) {
+    Optional<User> user = userRepository.findByIdAndActive(userId);
+    if (user.isPresent()) {
+      putLocal(userId, user.get().getUsername(), user.get().getEmail());
+    } else {
+      removeLocal(userId);
+    }
+  }
+
+  private void putLocal(Long userId, String username, String email) {
+    synchronized (swapLock) {
+      markTouched(userId);
+      index.put(userId, username, email);
+    }
+  }
+
+  private void removeLocal(Long userId) {
+    synchronized (swapLock) {
+      markTouched(userId);
+      index.entries.remove(userId);
+    }
+  }
+
+  // Recorded before the write, so a rebuild in progress replays it on the new index.
+  private void markTouched(Long userId) {
+    Set<Long> touched = touchedDuringRebuild;
+    if (touched != null) {
+      touched.add(userId);
+    }
+  }
+
+  private static final class Entry {
+    private final String username;
+    private final String usernameLower;
+    private final String emailLower;
+
+    private Entry(String username, String email) {
+      this.username = username;
+      this.usernameLower = username == null ? "" : username.toLowerCase(Locale.ROOT);
+      this.emailLower = email == null ? "" : email.toLowerCase(Locale.ROOT);
+    }
+
+    private boolean matches(String term, boolean prefix) {
+      return prefix
+          ? usernameLower.startsWith(term) || emailLower.startsWith(term)
+          : usernameLower.contains(term) || emailLower.contains(term);
+    }
+  }
+
+  static final class Index {
+    private static final long[] EMPTY = new long[0];
+
+    private final ConcurrentMap<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Postings> postings = new ConcurrentHashMap<>();
+
+    void put(Long userId, String username, String email) {
+      Entry entry = new Entry(username, email);
+      entries.put(userId, entry);
+      for (long gram : grams(entry.usernameLower, entry.emailLower)) {
+        postings.computeIfAbsent(gram, key -> new Postings()).add(userId);
+      }
+    }
+
+    /**
+     * Ids, ascending, of at most {@code limit} entries matching the term.
+     */
+    long[] match(String term, int limit) {
+      boolean prefix = term.length() < GRAM;
+      List<Slice> slices = new ArrayList<>();
+      if (prefix) {
+        Postings found = postings.get(prefixGram(term));
+        if (found == null) {
+          return EMPTY;
+        }
+        slices.add(found.slice());
+      } else {
+        for (int i = 0; i + GRAM <= term.length(); i++) {
+          Postings found = postings.get(trigram(term, i));
+          if (found == null) {
+            return EMPTY;
+          }
+          slices.add(found.slice());
+        }
+        slices.sort(Comparator.comparingInt(slice -> slice.size));
+      }
+
+      Slice smallest = slices.get(0);
+      long[] result = new long[Math.min(limit, smallest.size)];
+      int count = 0;
+      for (int i = 0; i < smallest.size && count < result.length; i++) {
+        long id = smallest.ids[i];
+        if (containedInAll(slices, id)) {
+          Entry entry = entries.get(id);
+          if (entry != null && entry.matches(term, prefix)) {
+            result[count++] = id;
+          }
+        }
+      }
+      return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+
+    private static boolean containedInAll(List<Slice> slices, long id) {
+      for (int i = 1; i < slices.size(); i++) {
+        Slice slice = slices.get(i);
+        if (Arrays.binarySearch(slice.ids, 0, slice.size, id) < 0) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    static Set<Long> grams(String... fields) {
+      Set<Long> grams = new LinkedHashSet<>();
+      for (String field : fields) {
+        for (int length = 1; length < GRAM && length <= field.length(); length++) {
+          grams.add(prefixGram(field.substring(0, length)));
+        }
+        for (int i = 0; i + GRAM <= field.length(); i++) {
+          grams.add(trigram(field, i));
+        }
+      }
+      return grams;
+    }
+
+    static long trigram(String value, int from) {
+      return pack(value, from, GRAM);
+    }
+
+    static long prefixGram(String value) {
+      return PREFIX_FLAG | ((long) value.length() << 49) | pack(value, 0, value.length());
+    }
+
+    static long pack(String value, int from, int length) {
+      long key = 0;
+      for (int i = from; i < from + length; i++) {
+        key = (key << 16) | value.charAt(i);
+      }
+      return key;
+    }
+  }
+
+  /**
+   * Sorted, append-mostly id list. Readers take {@code size} before
+   * {@code ids}; writers publish a new array before its size, so a reader
+   * always sees a sorted prefix of at least {@code size} valid ids.
+   */
+  private static final class Postings {
+    private volatile long[] ids = new long[2];
+    private volatile int size;
+
+    private synchronized void add(long id) {
+      int n = size;
+      long[] current = ids;
+      if (n > 0 && current[n - 1] >= id) {
+        int position = Arrays.binarySearch(current, 0, n, id);
+        if (position >= 0) {
+          return;
+        }
+        int insert = -position - 1;
+        long[] copy = new long[Math.max(current.length, n + 1)];
+        System.arraycopy(current, 0, copy, 0, insert);
+        copy[insert] = id;
+        System.arraycopy(current, insert, copy, insert + 1, n - insert);
+        ids = copy;
+      } else if (n == current.length) {
+        long[] grown = Arrays.copyOf(current, n + (n >> 1) + 1);
+        grown[n] = id;
+        ids = grown;
+      } else {
+        current[n] = id;
+      }
+      size = n + 1;
+    }
+
+    private Slice slice() {
+      int n = size;
+      return new Slice(ids, n);
+    }
+  }
+
+  /**
+   * The first {@code size} ids of a postings array, read without copying.
+   */
+  private static final class Slice {
+    private final long[] ids;
+    private final int size;
+
+    private Slice(long[] ids, int size) {
+      this.ids = ids;
+      this.size = size;
+    }
+  }
+}
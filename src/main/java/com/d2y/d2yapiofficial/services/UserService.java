@@ -1,24 +1,37 @@
 package com.d2y.d2yapiofficial.services;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
-import javax.persistence.EntityNotFoundException;
+import javax.validation.ValidationException;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 
+import com.d2y.d2yapiofficial.dto.page.CursorPage;
 import com.d2y.d2yapiofficial.dto.user.UpdateUserDTO;
 import com.d2y.d2yapiofficial.dto.user.UserResponseDTO;
-import com.d2y.d2yapiofficial.exceptions.ForbiddenException;
 import com.d2y.d2yapiofficial.models.User;
-import com.d2y.d2yapiofficial.models.UserRole;
+import com.d2y.d2yapiofficial.ol.dto.UserListDTO;
 import com.d2y.d2yapiofficial.repositories.UserRepository;
-import com.d2y.d2yapiofficial.repositories.UserRoleRepository;
-import com.d2y.d2yapiofficial.security.JwtProvider;
+import com.d2y.d2yapiofficial.utils.CursorCodec;
 import com.d2y.d2yapiofficial.utils.constants.ConstantMessage;
+import com.d2y.d2yapiofficial.utils.constants.DomainEventType;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import lombok.RequiredArgsConstructor;
 
@@ -28,12 +41,89 @@ public class UserService {
 
   private final UserRepository userRepository;
   private final GetService getService;
-  private final JwtProvider jwtProvider;
   private final TimestampService timestampService;
-  private final UserRoleRepository userRoleRepository;
+  private final DomainEventPublisher domainEventPublisher;
+  private final ObjectMapper objectMapper;
+  private final UserSearchIndex userSearchIndex;
 
   public Page<UserResponseDTO> getAllUsers(Pageable pageable, String search) {
-    return userRepository.getListUsers(search.toLowerCase(), pageable);
+    if (search == null || search.isBlank()) {
+      return userRepository.getListUsers("", pageable);
+    }
+
+    String term = search.toLowerCase(Locale.ROOT);
+    Optional<long[]> matches = userSearchIndex.search(term);
+    if (matches.isPresent() && pageable.isPaged() && isUserIdOrder(pageable.getSort())) {
+      return pageOf(matches.get(), pageable);
+    }
+    return userRepository.getListUsers(term, pageable);
+  }
+
+  /**
+   * Keyset page ordered by userId (default) or username, ascending. The page
+   * size limits the query directly and no total is computed.
+   */
+  public CursorPage<UserResponseDTO> getUsersAfter(String cursor, Pageable pageable, String search) {
+    String term = search == null ? "" : search.toLowerCase(Locale.ROOT);
+    int size = pageable.getPageSize();
+    PageRequest limit = PageRequest.of(0, size + 1);
+    String sort = cursorSort(pageable.getSort());
+    CursorCodec.Cursor after = CursorCodec.decode(cursor, sort);
+
+    if ("username".equals(sort)) {
+      List<UserResponseDTO> rows = userRepository.getListUsersAfterUsername(term, after.getKey(), after.getId(), limit);
+      return CursorPage.of(rows, size, user -> CursorCodec.encode(sort,
+          user.getUsername() == null ? "" : user.getUsername().toLowerCase(Locale.ROOT), user.getUserId()));
+    }
+    List<UserResponseDTO> rows = userRepository.getListUsersAfterId(term, after.getId(), limit);
+    return CursorPage.of(rows, size, user -> CursorCodec.encode(sort, "", user.getUserId()));
+  }
+
+  private String cursorSort(Sort sort) {
+    if (sort.isUnsorted()) {
+      return "userId";
+    }
+    Sort.Order order = sort.iterator().next();
+    if (sort.stream().count() > 1 || order.isDescending()
+        || !("userId".equals(order.getProperty()) || "username".equals(order.getProperty()))) {
+      throw new ValidationException("Cursor pagination only supports ascending sort by userId or username.");
+    }
+    return order.getProperty();
+  }
+
+  public List<UserListDTO> typeahead(String query, int limit) {
+    String term = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+    return userSearchIndex.typeahead(term, limit)
+        .orElseGet(() -> userRepository.getListUsers(term, PageRequest.of(0, limit)).stream()
+            .map(user -> UserListDTO.builder().userId(user.getUserId()).username(user.getUsername()).build())
+            .collect(Collectors.toList()));
+  }
+
+  // The index returns ids ascending, so it can only serve unsorted or userId-sorted pages.
+  private boolean isUserIdOrder(Sort sort) {
+    return sort.isUnsorted() || (sort.stream().count() == 1 && sort.getOrderFor("userId") != null);
+  }
+
+  // Boxes only the ids of the requested page.
+  private Page<UserResponseDTO> pageOf(long[] ids, Pageable pageable) {
+    Sort.Order order = pageable.getSort().getOrderFor("userId");
+    boolean descending = order != null && order.isDescending();
+
+    int from = (int) Math.min(pageable.getOffset(), ids.length);
+    int to = Math.min(from + pageable.getPageSize(), ids.length);
+    List<Long> pageIds = new ArrayList<>(to - from);
+    for (int i = from; i < to; i++) {
+      pageIds.add(descending ? ids[ids.length - 1 - i] : ids[i]);
+    }
+    Map<Long, User> users = userRepository.findAllById(pageIds).stream()
+        .collect(Collectors.toMap(User::getUserId, Function.identity()));
+
+    List<UserResponseDTO> content = pageIds.stream()
+        .map(users::get)
+        .filter(Objects::nonNull)
+        .map(UserResponseDTO::new)
+        .collect(Collectors.toList());
+    return new PageImpl<>(content, pageable, ids.length);
   }
 
   public User updateUser(Long userId, UpdateUserDTO updateUserDTO) {
@@ -41,36 +131,31 @@ public class UserService {
     updateFields(existingUser, updateUserDTO);
     existingUser.setUpdatedOn(timestampService.getUtcTimestamp());
 
-    return userRepository.save(existingUser);
+    User saved = userRepository.save(existingUser);
+    userSearchIndex.put(saved);
+    domainEventPublisher.publish(DomainEventType.USER_UPDATED, DomainEventType.AGGREGATE_USER, userId,
+        changedFields(updateUserDTO));
+    return saved;
   }
 
-  public void deleteUser(String token, Long userId) {
-    String email = jwtProvider.getEmailFromToken(token);
-    User updatedBy = getService.getUserByEmail(email, ConstantMessage.USER_NOT_FOUND);
+  @PreAuthorize("hasPermission(null, 'ACCESS_MANAGEMENT')")
+  public void deleteUser(Long userId) {
     User user = getService.getUser(userId, ConstantMessage.USER_NOT_FOUND);
+    user.setActive(false);
+    user.setUpdatedOn(timestampService.getUtcTimestamp());
 
-    User userActive = userRepository.findByIdAndActive(user.getUserId())
-        .orElseThrow(() -> new EntityNotFoundException(ConstantMessage.USER_NOT_FOUND));
-    List<Boolean> checkPermission = checkPermission(updatedBy.getUserId());
-    if (checkPermission.contains(true)) {
-      userActive.setActive(false);
-      userActive.setUpdatedOn(timestampService.getUtcTimestamp());
-
-      userRepository.save(user);
-    } else {
-      throw new ForbiddenException("You Don't Have Permission To Delete User!");
-    }
-
+    userRepository.save(user);
+    userSearchIndex.remove(userId);
+    domainEventPublisher.publish(DomainEventType.USER_DELETED, DomainEventType.AGGREGATE_USER, userId,
+        Collections.emptyMap());
   }
 
-  private List<Boolean> checkPermission(Long userId) {
-    User user = getService.getUser(userId, ConstantMessage.USER_NOT_FOUND);
-    List<UserRole> listUserRole = userRoleRepository.findByIdAndActiveList(user);
-    List<Boolean> isPermission = new ArrayList<>();
-    for (UserRole uRole : listUserRole) {
-      isPermission.add(userRoleRepository.isPermissionForUserRoleManipulation(uRole.getRoleId().getCategoryCodeId()));
-    }
-    return isPermission;
+  // Only the fields the request actually set, to keep events compact.
+  private Map<String, Object> changedFields(UpdateUserDTO updateUserDTO) {
+    Map<String, Object> fields = objectMapper.convertValue(updateUserDTO, new TypeReference<Map<String, Object>>() {
+    });
+    fields.values().removeIf(Objects::isNull);
+    return fields;
   }
 
   public UserResponseDTO buildUserDTO(User user) {
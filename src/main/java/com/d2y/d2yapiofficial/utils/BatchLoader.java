@@ -0,0 +1,72 @@
+package com.d2y.d2yapiofficial.utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Loads the rows related to a page of ids with one {@code IN} query per
+ * relation instead of one query per id. Id lists are de-duplicated and padded
+ * to the next power of two by repeating the last id, so the database and the
+ * Hibernate query plan cache only ever see a handful of distinct statement
+ * shapes; lists larger than {@link #MAX_IN_LIST} are split into chunks.
+ */
+public class BatchLoader {
+
+  static final int MAX_IN_LIST = 512;
+
+  private BatchLoader() {
+  }
+
+  public static <K, V> Map<K, V> loadUnique(Collection<K> ids, Function<List<K>, ? extends Collection<V>> query,
+      Function<V, K> keyOf) {
+    Map<K, V> result = new HashMap<>();
+    for (V row : load(ids, query)) {
+      result.put(keyOf.apply(row), row);
+    }
+    return result;
+  }
+
+  public static <K, V> Map<K, List<V>> loadGrouped(Collection<K> ids,
+      Function<List<K>, ? extends Collection<V>> query, Function<V, K> keyOf) {
+    Map<K, List<V>> result = new HashMap<>();
+    for (V row : load(ids, query)) {
+      result.computeIfAbsent(keyOf.apply(row), key -> new ArrayList<>()).add(row);
+    }
+    return result;
+  }
+
+  private static <K, V> List<V> load(Collection<K> ids, Function<List<K>, ? extends Collection<V>> query) {
+    List<K> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+    if (distinct.isEmpty()) {
+      return Collections.emptyList();
+    }
+
+    List<V> rows = new ArrayList<>();
+    for (int from = 0; from < distinct.size(); from += MAX_IN_LIST) {
+      List<K> chunk = distinct.subList(from, Math.min(from + MAX_IN_LIST, distinct.size()));
+      rows.addAll(query.apply(pad(chunk)));
+    }
+    return rows;
+  }
+
+  static <K> List<K> pad(List<K> ids) {
+    int padded = Integer.highestOneBit(ids.size());
+    if (padded < ids.size()) {
+      padded <<= 1;
+    }
+
+    List<K> result = new ArrayList<>(padded);
+    result.addAll(ids);
+    K last = ids.get(ids.size() - 1);
+    while (result.size() < padded) {
+      result.add(last);
+    }
+    return result;
+  }
+}
@@ -0,0 +1,66 @@
+package com.d2y.d2yapiofficial.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.validation.ValidationException;
+
+public class CsvUtil {
+
+  private CsvUtil() {
+  }
+
+  /**
+   * Splits one RFC 4180 record: fields are comma separated and may be quoted,
+   * with {@code ""} for a literal quote. Records spanning several lines are
+   * not supported.
+   */
+  public static List<String> parseLine(String line) {
+    List<String> fields = new ArrayList<>();
+    StringBuilder field = new StringBuilder();
+    boolean quoted = false;
+    for (int i = 0; i < line.length(); i++) {
+      char c = line.charAt(i);
+      if (quoted) {
+        if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+          field.append('"');
+          i++;
+        } else if (c == '"') {
+          quoted = false;
+        } else {
+          field.append(c);
+        }
+      } else if (c == '"' && field.length() == 0) {
+        quoted = true;
+      } else if (c == ',') {
+        fields.add(field.toString());
+        field.setLength(0);
+      } else {
+        field.append(c);
+      }
+    }
+    if (quoted) {
+      throw new ValidationException("Unterminated quoted field");
+    }
+    fields.add(field.toString());
+    return fields;
+  }
+
+  /**
+   * Quotes a field for export when needed. Values a spreadsheet would read as
+   * a formula ({@code = + - @}, tab or carriage return first) get a leading
+   * {@code '} so they open as text.
+   */
+  public static String escape(String value) {
+    if (value == null) {
+      return "";
+    }
+    if (!value.isEmpty() && "=+-@\t\r".indexOf(value.charAt(0)) >= 0) {
+      value = "'" + value;
+    }
+    if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+      return value;
+    }
+    return "\"" + value.replace("\"", "\"\"") + "\"";
+  }
+}
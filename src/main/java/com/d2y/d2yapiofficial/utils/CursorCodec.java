@@ -0,0 +1,56 @@
+package com.d2y.d2yapiofficial.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import javax.validation.ValidationException;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Opaque continuation tokens for keyset pagination. A token carries the sort
+ * it was issued for plus the (sort key, id) of the last row returned, so a
+ * client cannot resume a walk with a different ordering.
+ */
+public class CursorCodec {
+
+  private static final String SEPARATOR = "\n";
+
+  private CursorCodec() {
+  }
+
+  public static String encode(String sort, String key, Long id) {
+    String payload = sort + SEPARATOR + id + SEPARATOR + (key == null ? "" : key);
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Decodes a token issued for {@code sort}; an empty token starts from the
+   * first row.
+   */
+  public static Cursor decode(String token, String sort) {
+    if (token == null || token.isEmpty()) {
+      return new Cursor(sort, "", 0L);
+    }
+
+    try {
+      String payload = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+      String[] parts = payload.split(SEPARATOR, 3);
+      if (parts.length == 3 && parts[0].equals(sort)) {
+        return new Cursor(parts[0], parts[2], Long.valueOf(parts[1]));
+      }
+    } catch (IllegalArgumentException ex) {
+      // falls through to the validation error below
+    }
+    throw new ValidationException("Invalid cursor.");
+  }
+
+  @Getter
+  @AllArgsConstructor
+  public static class Cursor {
+    private final String sort;
+    private final String key;
+    private final Long id;
+  }
+}
@@ -0,0 +1,32 @@
+package com.d2y.d2yapiofficial.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+public class HashUtil {
+
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+  private HashUtil() {
+  }
+
+  /**
+   * Fixed-width (64 character) lowercase hex SHA-256 digest of the value.
+   */
+  public static String sha256Hex(String value) {
+    byte[] hash;
+    try {
+      hash = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+    } catch (NoSuchAlgorithmException ex) {
+      throw new IllegalStateException("SHA-256 is not available", ex);
+    }
+
+    char[] hex = new char[hash.length * 2];
+    for (int i = 0; i < hash.length; i++) {
+      hex[i * 2] = HEX[(hash[i] >> 4) & 0xf];
+      hex[i * 2 + 1] = HEX[hash[i] & 0xf];
+    }
+    return new String(hex);
+  }
+}
@@ -0,0 +1,31 @@
+package com.d2y.d2yapiofficial.utils;
+
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.Link;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import com.d2y.d2yapiofficial.dto.page.CursorPage;
+
+public class PaginationUtil {
+
+  // Upper bound for the size of any listing page, offset or cursor.
+  public static final int MAX_PAGE_SIZE = 500;
+
+  private PaginationUtil() {
+  }
+
+  /**
+   * Cursor pages carry no totals; the {@code next} link repeats the current
+   * request with the continuation token and is absent on the last page.
+   */
+  public static <T> CollectionModel<T> toModel(CursorPage<T> page) {
+    CollectionModel<T> model = CollectionModel.of(page.getContent());
+    if (page.getNextCursor() != null) {
+      model.add(Link.of(ServletUriComponentsBuilder.fromCurrentRequest()
+          .replaceQueryParam("cursor", page.getNextCursor())
+          .toUriString(), IanaLinkRelations.NEXT));
+    }
+    return model;
+  }
+}
@@ -0,0 +1,34 @@
+package com.d2y.d2yapiofficial.utils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evenly spaced permits shared by any number of threads. A non-positive rate
+ * means unlimited.
+ */
+public class RateLimiter {
+
+  private final long intervalNanos;
+  private long nextFreeSlot = System.nanoTime();
+
+  public RateLimiter(double permitsPerSecond) {
+    this.intervalNanos = permitsPerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond) : 0;
+  }
+
+  public void acquire() throws InterruptedException {
+    if (intervalNanos == 0) {
+      return;
+    }
+
+    long wait;
+    synchronized (this) {
+      long now = System.nanoTime();
+      long slot = Math.max(nextFreeSlot, now);
+      nextFreeSlot = slot + intervalNanos;
+      wait = slot - now;
+    }
+    if (wait > 0) {
+      TimeUnit.NANOSECONDS.sleep(wait);
+    }
+  }
+}
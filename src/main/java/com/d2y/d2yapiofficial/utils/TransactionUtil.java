@@ -0,0 +1,28 @@
+package com.d2y.d2yapiofficial.utils;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class TransactionUtil {
+
+  private TransactionUtil() {
+  }
+
+  /**
+   * Run the action once the surrounding transaction has committed, or right
+   * away when there is no transaction. Used for side effects (cache eviction,
+   * notifications) that must not be observed for a write that rolls back.
+   */
+  public static void afterCommit(Runnable action) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      action.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        action.run();
+      }
+    });
+  }
+}
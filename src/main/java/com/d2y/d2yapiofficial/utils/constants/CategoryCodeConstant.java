@@ -7,5 +7,6 @@ public class CategoryCodeConstant {
 
   public static final String CATEGORY_PRIVILEGE = "privilege";
   public static final String CATEGORY_ROLE = "role";
+  public static final String ROLE_ADMINISTRATOR = "Administrator";
 
 }
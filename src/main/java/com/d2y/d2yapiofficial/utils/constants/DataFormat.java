@@ -0,0 +1,14 @@
+package com.d2y.d2yapiofficial.utils.constants;
+
+public class DataFormat {
+
+  private DataFormat() {
+  }
+
+  public static final String CSV = "csv";
+  public static final String NDJSON = "ndjson";
+
+  public static final String CSV_CONTENT_TYPE = "text/csv";
+  public static final String NDJSON_CONTENT_TYPE = "application/x-ndjson";
+
+}
@@ -0,0 +1,19 @@
+package com.d2y.d2yapiofficial.utils.constants;
+
+public class DomainEventType {
+
+  private DomainEventType() {
+  }
+
+  public static final String AGGREGATE_USER = "user";
+  public static final String AGGREGATE_ROLE = "role";
+
+  public static final String USER_REGISTERED = "user.registered";
+  public static final String USER_VERIFIED = "user.verified";
+  public static final String USER_UPDATED = "user.updated";
+  public static final String USER_DELETED = "user.deleted";
+  public static final String USER_ROLES_CHANGED = "user.roles-changed";
+  public static final String ROLE_PRIVILEGES_CHANGED = "role.privileges-changed";
+  public static final String ROLE_PRIVILEGES_DELETED = "role.privileges-deleted";
+
+}
@@ -0,0 +1,19 @@
+package com.d2y.d2yapiofficial.utils.constants;
+
+public class SequenceConstant {
+
+  private SequenceConstant() {
+  }
+
+  // Ids reserved per sequence call; must match INCREMENT BY in db/pooled_sequences.sql.
+  public static final int ALLOCATION_SIZE = 50;
+
+  public static final String USERS = "users_seq";
+  public static final String TOKEN = "token_seq";
+  public static final String REFRESH_TOKEN = "refresh_token_seq";
+  public static final String ROLE_PRIVILEGE = "role_privilege_seq";
+  public static final String USER_ROLE = "user_role_seq";
+  public static final String CATEGORY_CODE = "category_code_seq";
+  public static final String MAIL_OUTBOX = "mail_outbox_seq";
+
+}
@@ -0,0 +1,46 @@
+-- Per-table id sequences for the pooled-lo generators (see SequenceConstant).
+-- Run once before deploying the sequence-based entities: ddl-auto=update would
+-- otherwise create the sequences starting at 1, below the existing ids.
+--
+-- Each nextval reserves ALLOCATION_SIZE (50) ids: with pooled-lo, Hibernate
+-- uses [value, value + 49]. Column defaults also draw from the new sequence,
+-- so plain SQL inserts that omit the id can never collide with a reserved
+-- range; they just leave the rest of their block unused.
+
+BEGIN;
+
+DO $$
+DECLARE
+  t RECORD;
+  next_id BIGINT;
+BEGIN
+  FOR t IN SELECT * FROM (VALUES
+      ('users', 'user_id', 'users_seq'),
+      ('token', 'token_id', 'token_seq'),
+      ('refresh_token', 'refresh_token_id', 'refresh_token_seq'),
+      ('role_privilege', 'role_privilege_id', 'role_privilege_seq'),
+      ('user_role', 'user_role_id', 'user_role_seq'),
+      ('category_code', 'category_code_id', 'category_code_seq'),
+      ('mail_outbox', 'mail_outbox_id', 'mail_outbox_seq')
+    ) AS v(table_name, id_column, sequence_name)
+  LOOP
+    IF to_regclass(t.table_name) IS NULL THEN
+      CONTINUE;
+    END IF;
+
+    EXECUTE format('CREATE SEQUENCE IF NOT EXISTS %I INCREMENT BY 50 MINVALUE 1', t.sequence_name);
+    EXECUTE format('ALTER SEQUENCE %I INCREMENT BY 50', t.sequence_name);
+    EXECUTE format('SELECT COALESCE(MAX(%I), 0) + 1 FROM %I', t.id_column, t.table_name) INTO next_id;
+    PERFORM setval(t.sequence_name::regclass, next_id, false);
+
+    -- Identity columns reject a new default; turn them into plain columns first.
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_name = t.table_name AND column_name = t.id_column AND is_identity = 'YES') THEN
+      EXECUTE format('ALTER TABLE %I ALTER COLUMN %I DROP IDENTITY', t.table_name, t.id_column);
+    END IF;
+    EXECUTE format('ALTER TABLE %I ALTER COLUMN %I SET DEFAULT nextval(%L)',
+        t.table_name, t.id_column, t.sequence_name);
+  END LOOP;
+END $$;
+
+COMMIT;
@@ -0,0 +1,53 @@
+-- Converts refresh_token into a table range-partitioned by week on created_on,
+-- for refresh-token.retention.mode=partition. Run once, during a quiet period.
+-- Weekly partitions are named refresh_token_pYYYYMMDD (the Monday they start
+-- on) and are created ahead of time by RefreshTokenSchedule; the default
+-- partition only catches rows outside every weekly range.
+--
+-- A partitioned table can only enforce uniqueness on keys that contain the
+-- partition column, so the primary key and the token hash index include
+-- created_on. Keep spring.jpa.hibernate.ddl-auto from recreating
+-- uk_refresh_token_hash on the parent (use validate or none) in this mode.
+
+BEGIN;
+
+ALTER TABLE refresh_token ADD COLUMN IF NOT EXISTS user_id BIGINT;
+ALTER TABLE refresh_token RENAME TO refresh_token_legacy;
+
+CREATE TABLE refresh_token (
+  refresh_token_id BIGSERIAL,
+  token_hash VARCHAR(64) NOT NULL,
+  family_id VARCHAR(36) NOT NULL,
+  user_id BIGINT,
+  consumed BOOLEAN NOT NULL DEFAULT FALSE,
+  created_on TIMESTAMP NOT NULL DEFAULT now(),
+  PRIMARY KEY (refresh_token_id, created_on)
+) PARTITION BY RANGE (created_on);
+
+CREATE UNIQUE INDEX uk_refresh_token_hash ON refresh_token (token_hash, created_on);
+CREATE INDEX idx_refresh_token_family ON refresh_token (family_id);
+
+CREATE TABLE refresh_token_default PARTITION OF refresh_token DEFAULT;
+
+-- Last week through two weeks ahead, so copied rows do not land in the
+-- default partition (which would block creating their weekly partition).
+DO $$
+DECLARE
+  week DATE;
+BEGIN
+  FOR i IN -1..2 LOOP
+    week := date_trunc('week', now())::date + i * 7;
+    EXECUTE format('CREATE TABLE %I PARTITION OF refresh_token FOR VALUES FROM (%L) TO (%L)',
+        'refresh_token_p' || to_char(week, 'YYYYMMDD'), week, week + 7);
+  END LOOP;
+END $$;
+
+-- Only tokens that can still be rotated are worth keeping.
+INSERT INTO refresh_token (token_hash, family_id, user_id, consumed, created_on)
+SELECT token_hash, family_id, user_id, consumed, created_on
+FROM refresh_token_legacy
+WHERE token_hash IS NOT NULL AND user_id IS NOT NULL AND created_on >= now() - INTERVAL '1 week';
+
+DROP TABLE refresh_token_legacy;
+
+COMMIT;
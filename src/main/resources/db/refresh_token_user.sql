@@ -0,0 +1,9 @@
+-- Records the user each refresh token family was issued to; refreshed access
+-- tokens are minted for that user. ddl-auto=update adds the column to a plain
+-- refresh_token table, but not to the partitioned one (see
+-- refresh_token_partitioning.sql), so run this once there before deploying.
+--
+-- Existing rows keep a NULL user_id and are refused on refresh: those clients
+-- log in again, and the rows age out with the normal retention.
+
+ALTER TABLE refresh_token ADD COLUMN IF NOT EXISTS user_id BIGINT;
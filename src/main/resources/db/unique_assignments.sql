@@ -0,0 +1,37 @@
+-- Unique (user_id, role_id) and (role_id, privilege_id) constraints used by
+-- the upserts in UserRoleJdbcRepository and RolePrivilegeJdbcRepository.
+-- Run once before deploying; ddl-auto=update cannot add a unique constraint
+-- over existing duplicates.
+--
+-- Duplicates are collapsed onto a single row per pair: the active one if any,
+-- otherwise the one with the lowest id.
+
+BEGIN;
+
+DELETE FROM user_role ur
+USING (
+  SELECT user_role_id,
+         ROW_NUMBER() OVER (PARTITION BY user_id, role_id
+                            ORDER BY is_active DESC, user_role_id) AS rn
+  FROM user_role
+  WHERE user_id IS NOT NULL AND role_id IS NOT NULL
+) d
+WHERE ur.user_role_id = d.user_role_id AND d.rn > 1;
+
+ALTER TABLE user_role
+  ADD CONSTRAINT uk_user_role_user_role UNIQUE (user_id, role_id);
+
+DELETE FROM role_privilege rp
+USING (
+  SELECT role_privilege_id,
+         ROW_NUMBER() OVER (PARTITION BY role_id, privilege_id
+                            ORDER BY is_active DESC, role_privilege_id) AS rn
+  FROM role_privilege
+  WHERE role_id IS NOT NULL AND privilege_id IS NOT NULL
+) d
+WHERE rp.role_privilege_id = d.role_privilege_id AND d.rn > 1;
+
+ALTER TABLE role_privilege
+  ADD CONSTRAINT uk_role_privilege_role_privilege UNIQUE (role_id, privilege_id);
+
+COMMIT;
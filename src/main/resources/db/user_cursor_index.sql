@@ -0,0 +1,11 @@
+-- Serves the username-ordered keyset pages of UserRepository
+-- (getListUsersAfterUsername): the index matches its ORDER BY
+-- COALESCE(LOWER(username), ''), user_id over active users, so a page reads
+-- forward from the cursor instead of sorting every active user. The userId
+-- walk already uses the primary key.
+--
+-- CONCURRENTLY cannot run inside a transaction block; run it on its own.
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_active_username_cursor
+  ON users ((COALESCE(LOWER(username), '')), user_id)
+  WHERE is_active = true;
@@ -0,0 +1,79 @@
+package com.d2y.d2yapiofficial.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * Compares login throughput when the password is verified once (the
+ * authentication manager only) against twice (an explicit
+ * {@code passwordEncoder.matches} in AuthService before authenticating, as
+ * login used to do). Every core runs logins for {@code benchmark.seconds}
+ * (10 by default) at BCrypt strength {@code benchmark.bcrypt.strength} (10 by
+ * default); no database or application context is needed.
+ *
+ * <pre>
+ * mvn test -Dtest=LoginPasswordVerificationBenchmark -Dbenchmark=true -Dbenchmark.bcrypt.strength=12
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class LoginPasswordVerificationBenchmark {
+
+  private static final String PASSWORD = "correct horse battery staple";
+
+  @Test
+  void verifyOnceVersusTwicePerLogin() throws Exception {
+    int strength = Integer.getInteger("benchmark.bcrypt.strength", 10);
+    long seconds = Long.getLong("benchmark.seconds", 10);
+    int cores = Runtime.getRuntime().availableProcessors();
+    BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+    String hash = encoder.encode(PASSWORD);
+
+    // Warm-up so neither run pays for class loading and JIT.
+    run(encoder, hash, 1, cores, 1);
+
+    double once = run(encoder, hash, 1, cores, seconds);
+    double twice = run(encoder, hash, 2, cores, seconds);
+    System.out.printf("BCrypt(%d) logins on %d cores: once %.1f/s (%.1f/s per core), twice %.1f/s (%.1f/s per core),"
+        + " %.2fx%n", strength, cores, once, once / cores, twice, twice / cores, once / twice);
+  }
+
+  // Logins per second across all cores, each login doing `verifications` matches.
+  private double run(BCryptPasswordEncoder encoder, String hash, int verifications, int cores, long seconds)
+      throws Exception {
+    ExecutorService pool = Executors.newFixedThreadPool(cores);
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+    long started = System.nanoTime();
+    try {
+      List<Future<Long>> workers = new ArrayList<>(cores);
+      for (int i = 0; i < cores; i++) {
+        workers.add(pool.submit(() -> {
+          long logins = 0;
+          while (System.nanoTime() < deadline) {
+            for (int v = 0; v < verifications; v++) {
+              if (!encoder.matches(PASSWORD, hash)) {
+                throw new IllegalStateException("Password did not match");
+              }
+            }
+            logins++;
+          }
+          return logins;
+        }));
+      }
+      long logins = 0;
+      for (Future<Long> worker : workers) {
+        logins += worker.get();
+      }
+      return logins * 1e9 / (System.nanoTime() - started);
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,98 @@
+package com.d2y.d2yapiofficial.benchmark;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.d2y.d2yapiofficial.models.CategoryCode;
+import com.d2y.d2yapiofficial.models.User;
+import com.d2y.d2yapiofficial.models.UserRole;
+
+/**
+ * Inserts {@code benchmark.rows} (100k by default) UserRole rows through JPA
+ * and reports the JDBC statements Hibernate prepared and the elapsed time.
+ * Needs the configured database; everything is rolled back afterwards.
+ *
+ * <pre>
+ * mvn test -Dtest=UserRoleInsertBenchmark -Dbenchmark=true -Dbenchmark.rows=100000
+ * </pre>
+ */
+@SpringBootTest
+@Transactional
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class UserRoleInsertBenchmark {
+
+  private static final int FLUSH_EVERY = 50;
+
+  @Autowired
+  private EntityManager entityManager;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Test
+  void insertUserRoles() {
+    int rows = Integer.getInteger("benchmark.rows", 100_000);
+    Timestamp now = new Timestamp(System.currentTimeMillis());
+
+    CategoryCode role = CategoryCode.builder().categoryName("role").codeName("Benchmark").build();
+    entityManager.persist(role);
+    List<Long> userIds = new ArrayList<>(rows);
+    for (int i = 0; i < rows; i++) {
+      User user = User.builder()
+          .username("benchmark" + i)
+          .email("benchmark" + i + "@example.com")
+          .active(true)
+          .createdOn(now)
+          .build();
+      entityManager.persist(user);
+      userIds.add(user.getUserId());
+      flushEvery(i);
+    }
+    entityManager.flush();
+    entityManager.clear();
+
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.setStatisticsEnabled(true);
+    statistics.clear();
+
+    long started = System.nanoTime();
+    CategoryCode roleReference = entityManager.getReference(CategoryCode.class, role.getCategoryCodeId());
+    for (int i = 0; i < rows; i++) {
+      entityManager.persist(UserRole.builder()
+          .userId(entityManager.getReference(User.class, userIds.get(i)))
+          .roleId(roleReference)
+          .active(true)
+          .createdOn(now)
+          .updatedOn(now)
+          .build());
+      flushEvery(i);
+    }
+    entityManager.flush();
+    long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+    System.out.printf("UserRole inserts: %d rows, %d statements prepared, %d entity inserts, %d ms (%.0f rows/s)%n",
+        rows, statistics.getPrepareStatementCount(), statistics.getEntityInsertCount(), elapsedMillis,
+        rows * 1000.0 / Math.max(1, elapsedMillis));
+    statistics.setStatisticsEnabled(false);
+  }
+
+  // Keeps the persistence context small; each flush sends one JDBC batch.
+  private void flushEvery(int i) {
+    if ((i + 1) % FLUSH_EVERY == 0) {
+      entityManager.flush();
+      entityManager.clear();
+    }
+  }
+}
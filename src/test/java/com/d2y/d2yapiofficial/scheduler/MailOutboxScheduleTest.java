@@ -0,0 +1,220 @@
+package com.d2y.d2yapiofficial.scheduler;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import javax.mail.internet.MimeMessage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.mail.MailSenderAutoConfiguration;
+import org.springframework.boot.autoconfigure.thymeleaf.ThymeleafAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.d2y.d2yapiofficial.models.MailOutbox;
+import com.d2y.d2yapiofficial.models.NotificationEmail;
+import com.d2y.d2yapiofficial.repositories.MailOutboxRepository;
+import com.d2y.d2yapiofficial.services.MailOutboxService;
+import com.d2y.d2yapiofficial.services.MailService;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Runs the outbox against PostgreSQL, for {@code FOR UPDATE SKIP LOCKED}, and
+ * an embedded GreenMail SMTP server. The schedule is built by hand and
+ * dispatched directly, so no background poll interferes.
+ */
+@DataJpaTest
+@Testcontainers
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ImportAutoConfiguration({ MailSenderAutoConfiguration.class, ThymeleafAutoConfiguration.class })
+@Import({ MailOutboxService.class, MailService.class })
+@TestPropertySource(properties = {
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect",
+    "spring.mail.host=localhost",
+    "spring.mail.port=3025",
+    "spring.mail.sender=noreply@d2y.test",
+    "spring.mail.properties.mail.smtp.auth=false",
+    "mail.outbox.max-attempts=3",
+    "mail.outbox.backoff=60000",
+    "mail.outbox.max-backoff=3600000" })
+class MailOutboxScheduleTest {
+
+  private static final long BACKOFF_MILLIS = 60_000;
+
+  @Container
+  static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:14-alpine");
+
+  @RegisterExtension
+  static final GreenMailExtension SMTP = new GreenMailExtension(ServerSetupTest.SMTP);
+
+  @DynamicPropertySource
+  static void datasource(DynamicPropertyRegistry registry) {
+    registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+    registry.add("spring.datasource.username", POSTGRES::getUsername);
+    registry.add("spring.datasource.password", POSTGRES::getPassword);
+  }
+
+  @TestConfiguration
+  static class Config {
+
+    @Bean
+    MeterRegistry meterRegistry() {
+      return new SimpleMeterRegistry();
+    }
+  }
+
+  @Autowired
+  private MailOutboxService mailOutboxService;
+
+  @Autowired
+  private MailOutboxRepository mailOutboxRepository;
+
+  @Autowired
+  private MailService mailService;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  private MailOutboxSchedule schedule;
+
+  @BeforeEach
+  void setUp() {
+    mailOutboxRepository.deleteAll();
+    schedule = new MailOutboxSchedule(mailOutboxService, mailService, new SimpleMeterRegistry());
+    ReflectionTestUtils.setField(schedule, "batchSize", 2);
+    schedule.registerMetrics();
+  }
+
+  @Test
+  void concurrentClaimsSkipLockedRows() {
+    List<Long> ids = enqueue(3);
+    TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+    transaction.executeWithoutResult(status -> {
+      List<Long> first = idsOf(mailOutboxService.claim(2));
+      List<Long> second = CompletableFuture
+          .supplyAsync(() -> transaction.execute(other -> idsOf(mailOutboxService.claim(10))))
+          .join();
+
+      assertThat(first).hasSize(2);
+      assertThat(second).doesNotContainAnyElementsOf(first);
+      List<Long> claimed = new ArrayList<>(first);
+      claimed.addAll(second);
+      assertThat(claimed).containsExactlyInAnyOrderElementsOf(ids);
+    });
+  }
+
+  @Test
+  void dispatchSendsEveryDueMailAndMarksItSent() throws Exception {
+    List<Long> ids = enqueue(3);
+
+    schedule.dispatch();
+
+    MimeMessage[] received = SMTP.getReceivedMessages();
+    assertThat(received).hasSize(3);
+    List<String> recipients = new ArrayList<>();
+    for (MimeMessage message : received) {
+      recipients.add(message.getAllRecipients()[0].toString());
+    }
+    assertThat(recipients).containsExactlyInAnyOrder("user0@example.com", "user1@example.com", "user2@example.com");
+
+    for (Long id : ids) {
+      MailOutbox mail = find(id);
+      assertThat(mail.getStatus()).isEqualTo(MailOutbox.Status.SENT);
+      assertThat(mail.getSentOn()).isNotNull();
+      assertThat(mail.getAttempts()).isZero();
+    }
+  }
+
+  @Test
+  void failedSendsBackOffAndGiveUpAfterMaxAttempts() {
+    Long id = enqueue(1).get(0);
+    SMTP.stop();
+
+    long before = System.currentTimeMillis();
+    schedule.dispatch();
+    MailOutbox mail = find(id);
+    assertThat(mail.getStatus()).isEqualTo(MailOutbox.Status.PENDING);
+    assertThat(mail.getAttempts()).isEqualTo(1);
+    assertThat(mail.getLastError()).isNotBlank();
+    assertThat(mail.getNextAttemptAt().getTime()).isGreaterThanOrEqualTo(before + BACKOFF_MILLIS);
+
+    // Not due yet, so the next poll leaves it alone.
+    schedule.dispatch();
+    assertThat(find(id).getAttempts()).isEqualTo(1);
+
+    makeDue(id);
+    before = System.currentTimeMillis();
+    schedule.dispatch();
+    mail = find(id);
+    assertThat(mail.getStatus()).isEqualTo(MailOutbox.Status.PENDING);
+    assertThat(mail.getAttempts()).isEqualTo(2);
+    assertThat(mail.getNextAttemptAt().getTime()).isGreaterThanOrEqualTo(before + 2 * BACKOFF_MILLIS);
+
+    makeDue(id);
+    schedule.dispatch();
+    mail = find(id);
+    assertThat(mail.getStatus()).isEqualTo(MailOutbox.Status.FAILED);
+    assertThat(mail.getAttempts()).isEqualTo(3);
+
+    makeDue(id);
+    schedule.dispatch();
+    assertThat(find(id).getAttempts()).isEqualTo(3);
+  }
+
+  private List<Long> enqueue(int count) {
+    List<Long> ids = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      NotificationEmail email = new NotificationEmail();
+      email.setRecipient("user" + i + "@example.com");
+      email.setSubject("Welcome user" + i);
+      email.setUsername("user" + i);
+      email.setVerificationUrl("http://localhost/verify/" + i);
+      ids.add(mailOutboxService.enqueue(email).getMailOutboxId());
+    }
+    return ids;
+  }
+
+  private void makeDue(Long id) {
+    MailOutbox mail = find(id);
+    mail.setNextAttemptAt(new Timestamp(System.currentTimeMillis() - 1));
+    mailOutboxRepository.save(mail);
+  }
+
+  private MailOutbox find(Long id) {
+    return mailOutboxRepository.findById(id).orElseThrow();
+  }
+
+  private static List<Long> idsOf(List<MailOutbox> mails) {
+    return mails.stream().map(MailOutbox::getMailOutboxId).collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,142 @@
+package com.d2y.d2yapiofficial.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.validation.ValidationException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.d2y.d2yapiofficial.dto.auth.AuthResponse;
+import com.d2y.d2yapiofficial.dto.auth.LoginRequest;
+import com.d2y.d2yapiofficial.exceptions.ForbiddenException;
+import com.d2y.d2yapiofficial.models.User;
+import com.d2y.d2yapiofficial.repositories.TokenRepository;
+import com.d2y.d2yapiofficial.repositories.UserRepository;
+import com.d2y.d2yapiofficial.security.AuthorizationSnapshot;
+import com.d2y.d2yapiofficial.security.AuthorizationSnapshotCache;
+import com.d2y.d2yapiofficial.security.IdentityContext;
+import com.d2y.d2yapiofficial.security.JwtProvider;
+import com.d2y.d2yapiofficial.security.VerificationLinkSigner;
+
+/**
+ * Runs {@link AuthService#login} through a real {@link DaoAuthenticationProvider}
+ * and counts {@link PasswordEncoder#matches} calls: BCrypt dominates login
+ * cost, so a login must verify the password exactly once.
+ */
+class AuthServiceLoginTest {
+
+  private static final String EMAIL = "alice@example.com";
+  private static final String PASSWORD = "Correct#Horse1";
+
+  private final CountingPasswordEncoder passwordEncoder = new CountingPasswordEncoder(new BCryptPasswordEncoder(4));
+  private final IdentityContext identityContext = mock(IdentityContext.class);
+  private final JwtProvider jwtProvider = mock(JwtProvider.class);
+  private final RefreshTokenService refreshTokenService = mock(RefreshTokenService.class);
+  private final AuthorizationSnapshotCache authorizationSnapshotCache = mock(AuthorizationSnapshotCache.class);
+  private AuthService authService;
+
+  @BeforeEach
+  void setUp() {
+    DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+    provider.setUserDetailsService(new UserDetailsServiceImpl(identityContext, mock(UserRepository.class)));
+    provider.setPasswordEncoder(passwordEncoder);
+
+    authService = new AuthService(mock(MailOutboxService.class), mock(TokenRepository.class),
+        mock(UserRepository.class), authorizationSnapshotCache, identityContext, refreshTokenService,
+        passwordEncoder, new ProviderManager(provider), jwtProvider, mock(VerificationLinkSigner.class),
+        mock(DomainEventPublisher.class), mock(UserSearchIndex.class));
+
+    when(jwtProvider.generateToken(any(Authentication.class))).thenReturn("access-token");
+    when(refreshTokenService.generateRefreshToken(anyLong())).thenReturn("refresh-token");
+    when(authorizationSnapshotCache.get(anyLong()))
+        .thenReturn(new AuthorizationSnapshot(1L, Collections.emptyMap(), Collections.emptyMap()));
+  }
+
+  @AfterEach
+  void clearContext() {
+    SecurityContextHolder.clearContext();
+  }
+
+  @Test
+  void successfulLoginVerifiesThePasswordOnce() {
+    givenUser(true);
+
+    AuthResponse response = authService.login(new LoginRequest(EMAIL, PASSWORD));
+
+    assertThat(response.getAccessToken()).isEqualTo("access-token");
+    assertThat(passwordEncoder.matches.get()).isEqualTo(1);
+  }
+
+  @Test
+  void wrongPasswordIsVerifiedOnce() {
+    givenUser(true);
+
+    assertThatThrownBy(() -> authService.login(new LoginRequest(EMAIL, "Wrong#Horse1")))
+        .isInstanceOf(ValidationException.class);
+    assertThat(passwordEncoder.matches.get()).isEqualTo(1);
+  }
+
+  @Test
+  void disabledUserIsRejectedBeforeVerifying() {
+    givenUser(false);
+
+    assertThatThrownBy(() -> authService.login(new LoginRequest(EMAIL, PASSWORD)))
+        .isInstanceOf(ForbiddenException.class);
+    assertThat(passwordEncoder.matches.get()).isZero();
+  }
+
+  private void givenUser(boolean enabled) {
+    User user = User.builder()
+        .userId(1L)
+        .username("alice")
+        .email(EMAIL)
+        .password(passwordEncoder.encode(PASSWORD))
+        .active(true)
+        .enabled(enabled)
+        .build();
+    when(identityContext.getUserByEmail(EMAIL)).thenReturn(Optional.of(user));
+  }
+
+  private static final class CountingPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final AtomicInteger matches = new AtomicInteger();
+
+    CountingPasswordEncoder(PasswordEncoder delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+      return delegate.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+      matches.incrementAndGet();
+      return delegate.matches(rawPassword, encodedPassword);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+      return delegate.upgradeEncoding(encodedPassword);
+    }
+  }
+}
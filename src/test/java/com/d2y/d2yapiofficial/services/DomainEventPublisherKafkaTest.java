@@ -0,0 +1,173 @@
+package com.d2y.d2yapiofficial.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.d2y.d2yapiofficial.configs.KafkaProducerConfig;
+import com.d2y.d2yapiofficial.dto.event.DomainEvent;
+import com.d2y.d2yapiofficial.utils.constants.DomainEventType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Publishes through {@link KafkaProducerConfig} to an embedded broker and reads
+ * the raw records back: the JSON envelope, the {@code aggregateType:aggregateId}
+ * key, and that nothing is sent before commit or after a rollback.
+ */
+@SpringJUnitConfig
+@EmbeddedKafka(partitions = 1, topics = DomainEventPublisherKafkaTest.TOPIC)
+@TestPropertySource(properties = { "events.kafka.enabled=true",
+    "events.kafka.topic=" + DomainEventPublisherKafkaTest.TOPIC })
+class DomainEventPublisherKafkaTest {
+
+  static final String TOPIC = "domain-events-test";
+  private static final long QUIET_MILLIS = 1_000;
+  private static final long RECEIVE_MILLIS = 10_000;
+
+  @Configuration
+  @Import({ KafkaProducerConfig.class, DomainEventPublisher.class })
+  static class Config {
+
+    @Bean
+    KafkaProperties kafkaProperties(EmbeddedKafkaBroker broker) {
+      KafkaProperties kafkaProperties = new KafkaProperties();
+      kafkaProperties.setBootstrapServers(Arrays.asList(broker.getBrokersAsString().split(",")));
+      return kafkaProperties;
+    }
+
+    @Bean
+    MeterRegistry meterRegistry() {
+      return new SimpleMeterRegistry();
+    }
+  }
+
+  @Autowired
+  private DomainEventPublisher domainEventPublisher;
+
+  @Autowired
+  private EmbeddedKafkaBroker broker;
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final TransactionTemplate transaction = new TransactionTemplate(new NoOpTransactionManager());
+  private Consumer<String, String> consumer;
+
+  @BeforeEach
+  void subscribe() {
+    Map<String, Object> props = KafkaTestUtils.consumerProps("domain-event-test-" + System.nanoTime(), "false",
+        broker);
+    consumer = new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), new StringDeserializer())
+        .createConsumer();
+    broker.consumeFromAnEmbeddedTopic(consumer, TOPIC);
+  }
+
+  @AfterEach
+  void close() {
+    consumer.close();
+  }
+
+  @Test
+  void publishesEnvelopeKeyedByAggregateAfterCommit() throws Exception {
+    Long userId = 41L;
+    String key = DomainEventType.AGGREGATE_USER + ":" + userId;
+
+    transaction.executeWithoutResult(status -> {
+      domainEventPublisher.publish(DomainEventType.USER_REGISTERED, DomainEventType.AGGREGATE_USER, userId,
+          Collections.singletonMap("email", "user41@example.com"));
+      assertThat(recordsFor(key, QUIET_MILLIS)).isEmpty();
+    });
+
+    List<ConsumerRecord<String, String>> records = recordsFor(key, RECEIVE_MILLIS);
+    assertThat(records).hasSize(1);
+    ConsumerRecord<String, String> record = records.get(0);
+    assertThat(record.headers().lastHeader("__TypeId__")).isNull();
+
+    DomainEvent event = objectMapper.readValue(record.value(), DomainEvent.class);
+    assertThat(event.getEventId()).isNotBlank();
+    assertThat(event.getType()).isEqualTo(DomainEventType.USER_REGISTERED);
+    assertThat(event.getVersion()).isEqualTo(1);
+    assertThat(event.getAggregateType()).isEqualTo(DomainEventType.AGGREGATE_USER);
+    assertThat(event.getAggregateId()).isEqualTo(userId);
+    assertThat(event.getOccurredOn()).isPositive();
+    assertThat(event.getData()).containsEntry("email", "user41@example.com");
+  }
+
+  @Test
+  void publishesNothingWhenTheTransactionRollsBack() {
+    Long userId = 42L;
+
+    transaction.executeWithoutResult(status -> {
+      domainEventPublisher.publish(DomainEventType.USER_VERIFIED, DomainEventType.AGGREGATE_USER, userId,
+          Collections.emptyMap());
+      status.setRollbackOnly();
+    });
+
+    assertThat(recordsFor(DomainEventType.AGGREGATE_USER + ":" + userId, QUIET_MILLIS)).isEmpty();
+  }
+
+  // Polls until a record with the key shows up or the time is over.
+  private List<ConsumerRecord<String, String>> recordsFor(String key, long millis) {
+    List<ConsumerRecord<String, String>> matching = new ArrayList<>();
+    long deadline = System.currentTimeMillis() + millis;
+    while (matching.isEmpty() && System.currentTimeMillis() < deadline) {
+      for (ConsumerRecord<String, String> record : KafkaTestUtils.getRecords(consumer, 200)) {
+        if (key.equals(record.key())) {
+          matching.add(record);
+        }
+      }
+    }
+    return matching;
+  }
+
+  /**
+   * Drives transaction synchronization, so {@code afterCommit} callbacks run
+   * on commit only, without a database.
+   */
+  private static final class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+
+    @Override
+    protected Object doGetTransaction() {
+      return new Object();
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+    }
+
+    @Override
+    protected void doCommit(DefaultTransactionStatus status) {
+    }
+
+    @Override
+    protected void doRollback(DefaultTransactionStatus status) {
+    }
+  }
+}
@@ -0,0 +1,157 @@
+package com.d2y.d2yapiofficial.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.d2y.d2yapiofficial.dto.user.UserContactDTO;
+import com.d2y.d2yapiofficial.models.User;
+import com.d2y.d2yapiofficial.repositories.UserRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class UserSearchIndexTest {
+
+  @Test
+  void packKeepsSixteenBitsPerChar() {
+    assertThat(UserSearchIndex.Index.pack("abc", 0, 3))
+        .isEqualTo(((long) 'a' << 32) | ((long) 'b' << 16) | 'c');
+    assertThat(UserSearchIndex.Index.pack("xabc", 1, 3)).isEqualTo(UserSearchIndex.Index.trigram("abc", 0));
+    assertThat(UserSearchIndex.Index.pack("\uffff", 0, 1)).isEqualTo(0xffffL);
+  }
+
+  @Test
+  void prefixGramsDoNotCollideWithTrigrams() {
+    long prefix = UserSearchIndex.Index.prefixGram("ab");
+    assertThat(prefix).isNotEqualTo(UserSearchIndex.Index.pack("ab", 0, 2));
+    assertThat(prefix).isNotEqualTo(UserSearchIndex.Index.prefixGram("a"));
+    assertThat(UserSearchIndex.Index.prefixGram("a")).isNotEqualTo(UserSearchIndex.Index.prefixGram("\u0000a"));
+  }
+
+  @Test
+  void gramsCoverPrefixesAndTrigramsOfEachField() {
+    assertThat(UserSearchIndex.Index.grams("abcd", "x")).containsExactlyInAnyOrder(
+        UserSearchIndex.Index.prefixGram("a"),
+        UserSearchIndex.Index.prefixGram("ab"),
+        UserSearchIndex.Index.trigram("abcd", 0),
+        UserSearchIndex.Index.trigram("abcd", 1),
+        UserSearchIndex.Index.prefixGram("x"));
+    assertThat(UserSearchIndex.Index.grams("")).isEmpty();
+  }
+
+  @Test
+  void matchFindsSubstringsInIdOrder() {
+    UserSearchIndex.Index index = new UserSearchIndex.Index();
+    index.put(30L, "Alice", "alice@example.com");
+    index.put(10L, "malika", "m@example.com");
+    index.put(20L, "bob", "bob@example.com");
+
+    assertThat(index.match("lic", Integer.MAX_VALUE)).containsExactly(30L);
+    assertThat(index.match("ali", Integer.MAX_VALUE)).containsExactly(10L, 30L);
+    assertThat(index.match("example", Integer.MAX_VALUE)).containsExactly(10L, 20L, 30L);
+    assertThat(index.match("zzz", Integer.MAX_VALUE)).isEmpty();
+  }
+
+  @Test
+  void shortTermsMatchPrefixesOnly() {
+    UserSearchIndex.Index index = new UserSearchIndex.Index();
+    index.put(1L, "alice", "alice@example.com");
+    index.put(2L, "malika", "m@example.com");
+
+    assertThat(index.match("al", Integer.MAX_VALUE)).containsExactly(1L);
+    assertThat(index.match("m", Integer.MAX_VALUE)).containsExactly(2L);
+  }
+
+  @Test
+  void matchVerifiesCandidatesAgainstCurrentFields() {
+    UserSearchIndex.Index index = new UserSearchIndex.Index();
+    index.put(1L, "alice", "a@example.com");
+    index.put(1L, "bob", "a@example.com");
+
+    // The postings still list 1 under "ali", but the entry no longer matches.
+    assertThat(index.match("ali", Integer.MAX_VALUE)).isEmpty();
+    assertThat(index.match("bob", Integer.MAX_VALUE)).containsExactly(1L);
+  }
+
+  @Test
+  void matchStopsAtLimit() {
+    UserSearchIndex.Index index = new UserSearchIndex.Index();
+    for (long id = 100; id > 0; id--) {
+      index.put(id, "user" + id, "user" + id + "@example.com");
+    }
+
+    assertThat(index.match("user", 5)).containsExactly(1L, 2L, 3L, 4L, 5L);
+    assertThat(index.match("user", Integer.MAX_VALUE)).hasSize(100);
+  }
+
+  // Renames every user while rebuilds run back to back; none may be lost in a swapped-out index.
+  @Test
+  void updatesRacingRebuildsAreNotLost() throws InterruptedException {
+    int users = 2_000;
+    ConcurrentSkipListMap<Long, String> usernames = new ConcurrentSkipListMap<>();
+    for (long id = 1; id <= users; id++) {
+      usernames.put(id, "old" + id);
+    }
+
+    UserRepository userRepository = mock(UserRepository.class);
+    when(userRepository.findSearchEntriesAfter(anyLong(), any())).thenAnswer(invocation -> {
+      Long afterId = invocation.getArgument(0);
+      Pageable page = invocation.getArgument(1);
+      return usernames.tailMap(afterId, false).entrySet().stream()
+          .limit(page.getPageSize())
+          .map(user -> UserContactDTO.builder()
+              .userId(user.getKey())
+              .username(user.getValue())
+              .email("u" + user.getKey() + "@example.com")
+              .build())
+          .collect(Collectors.toList());
+    });
+    when(userRepository.findByIdAndActive(anyLong())).thenAnswer(invocation -> {
+      Long id = invocation.getArgument(0);
+      return Optional.ofNullable(usernames.get(id)).map(username -> user(id, username));
+    });
+
+    UserSearchIndex searchIndex = new UserSearchIndex(userRepository, mock(CacheInvalidationBus.class),
+        new SimpleMeterRegistry());
+    ReflectionTestUtils.setField(searchIndex, "enabled", true);
+    ReflectionTestUtils.setField(searchIndex, "pageSize", 50);
+    searchIndex.init();
+    try {
+      searchIndex.rebuild();
+
+      AtomicBoolean writing = new AtomicBoolean(true);
+      Thread rebuilder = new Thread(() -> {
+        while (writing.get()) {
+          searchIndex.rebuild();
+        }
+      });
+      rebuilder.start();
+      for (long id = 1; id <= users; id++) {
+        usernames.put(id, "new" + id);
+        searchIndex.put(user(id, "new" + id));
+      }
+      writing.set(false);
+      rebuilder.join();
+
+      assertThat(searchIndex.search("new").orElseThrow()).hasSize(users);
+      assertThat(searchIndex.search("old").orElseThrow()).isEmpty();
+    } finally {
+      searchIndex.shutdown();
+    }
+  }
+
+  private static User user(Long id, String username) {
+    return User.builder().userId(id).username(username).email("u" + id + "@example.com").active(true).build();
+  }
+}
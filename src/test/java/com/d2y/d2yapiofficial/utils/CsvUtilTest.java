@@ -0,0 +1,39 @@
+package com.d2y.d2yapiofficial.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class CsvUtilTest {
+
+  @Test
+  void leavesPlainValuesAlone() {
+    assertThat(CsvUtil.escape("alice@example.com")).isEqualTo("alice@example.com");
+    assertThat(CsvUtil.escape(null)).isEmpty();
+    assertThat(CsvUtil.escape("")).isEmpty();
+  }
+
+  @Test
+  void quotesSeparatorsAndQuotes() {
+    assertThat(CsvUtil.escape("a,b")).isEqualTo("\"a,b\"");
+    assertThat(CsvUtil.escape("say \"hi\"")).isEqualTo("\"say \"\"hi\"\"\"");
+    assertThat(CsvUtil.escape("two\nlines")).isEqualTo("\"two\nlines\"");
+  }
+
+  @Test
+  void neutralizesFormulaPrefixes() {
+    assertThat(CsvUtil.escape("=HYPERLINK(\"http://evil\")")).isEqualTo("\"'=HYPERLINK(\"\"http://evil\"\")\"");
+    assertThat(CsvUtil.escape("+6281234")).isEqualTo("'+6281234");
+    assertThat(CsvUtil.escape("-1+1")).isEqualTo("'-1+1");
+    assertThat(CsvUtil.escape("@SUM(A1)")).isEqualTo("'@SUM(A1)");
+    assertThat(CsvUtil.escape("\tcmd")).isEqualTo("'\tcmd");
+    assertThat(CsvUtil.escape("a=b")).isEqualTo("a=b");
+  }
+
+  @Test
+  void parsesWhatItEscapes() {
+    String value = "x, \"y\"";
+
+    assertThat(CsvUtil.parseLine(CsvUtil.escape(value) + ",z")).containsExactly(value, "z");
+  }
+}
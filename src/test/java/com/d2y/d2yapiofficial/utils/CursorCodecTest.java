@@ -0,0 +1,72 @@
+package com.d2y.d2yapiofficial.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import javax.validation.ValidationException;
+
+import org.junit.jupiter.api.Test;
+
+class CursorCodecTest {
+
+  @Test
+  void roundTripsSortKeyAndId() {
+    CursorCodec.Cursor cursor = CursorCodec.decode(CursorCodec.encode("username", "alice", 42L), "username");
+
+    assertThat(cursor.getSort()).isEqualTo("username");
+    assertThat(cursor.getKey()).isEqualTo("alice");
+    assertThat(cursor.getId()).isEqualTo(42L);
+  }
+
+  @Test
+  void keepsKeysContainingTheSeparatorAndNonAsciiCharacters() {
+    String key = "multi\nline ünïcødé";
+
+    assertThat(CursorCodec.decode(CursorCodec.encode("username", key, 7L), "username").getKey()).isEqualTo(key);
+  }
+
+  @Test
+  void encodesNullKeyAsEmpty() {
+    assertThat(CursorCodec.decode(CursorCodec.encode("userId", null, 3L), "userId").getKey()).isEmpty();
+  }
+
+  @Test
+  void tokensAreUrlSafe() {
+    assertThat(CursorCodec.encode("username", "??>>~~", Long.MAX_VALUE)).matches("[A-Za-z0-9_-]+");
+  }
+
+  @Test
+  void emptyTokenStartsAtTheFirstRow() {
+    for (String token : new String[] { null, "" }) {
+      CursorCodec.Cursor cursor = CursorCodec.decode(token, "userId");
+      assertThat(cursor.getSort()).isEqualTo("userId");
+      assertThat(cursor.getKey()).isEmpty();
+      assertThat(cursor.getId()).isZero();
+    }
+  }
+
+  @Test
+  void rejectsTokenIssuedForAnotherSort() {
+    String token = CursorCodec.encode("userId", "", 5L);
+
+    assertThatThrownBy(() -> CursorCodec.decode(token, "username")).isInstanceOf(ValidationException.class);
+  }
+
+  @Test
+  void rejectsMalformedTokens() {
+    String notBase64 = "not a cursor!";
+    String missingParts = encodeRaw("userId\n5");
+    String badId = encodeRaw("userId\nfive\n");
+
+    for (String token : new String[] { notBase64, missingParts, badId }) {
+      assertThatThrownBy(() -> CursorCodec.decode(token, "userId")).isInstanceOf(ValidationException.class);
+    }
+  }
+
+  private static String encodeRaw(String payload) {
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+  }
+}